@@ -1,6 +1,14 @@
 package com.filecommander;
 
 import com.filecommander.repository.DatabaseManager;
+import com.filecommander.repository.OperationHistoryRepository;
+import com.filecommander.repository.SettingsRepository;
+import com.filecommander.repository.TransferJournalRepository;
+import com.filecommander.service.BlockingIoExecutor;
+import com.filecommander.service.DirectoryListingCache;
+import com.filecommander.service.DirectoryWatcher;
+import com.filecommander.service.FileOperationService;
+import com.filecommander.service.StagingReclaimer;
 import com.filecommander.ui.MainWindow;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -10,6 +18,8 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
         DatabaseManager.getInstance();
+        SettingsRepository.getInstance();
+        StagingReclaimer.getInstance().start();
 
         try {
             primaryStage.getIcons().add(new javafx.scene.image.Image(
@@ -27,6 +37,14 @@ public class Main extends Application {
 
     @Override
     public void stop() {
+        StagingReclaimer.getInstance().stop();
+        TransferJournalRepository.getInstance().close();
+        FileOperationService.getInstance().shutdown();
+        DirectoryListingCache.getInstance().close();
+        DirectoryWatcher.getInstance().close();
+        BlockingIoExecutor.getInstance().shutdown();
+        OperationHistoryRepository.getInstance().close();
+        SettingsRepository.getInstance().close();
         DatabaseManager.getInstance().close();
     }
 
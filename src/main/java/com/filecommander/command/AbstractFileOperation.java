@@ -3,6 +3,7 @@ package com.filecommander.command;
 import com.filecommander.localization.LocalizationManager;
 import com.filecommander.model.OperationResult;
 import com.filecommander.repository.OperationHistoryRepository;
+import com.filecommander.service.OperationHandle;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -13,6 +14,12 @@ public abstract class AbstractFileOperation implements FileCommand {
     protected Path destination;
     protected OperationResult result;
     protected String validationError;
+    protected OperationHandle handle = new OperationHandle(null);
+
+    @Override
+    public void setHandle(OperationHandle handle) {
+        this.handle = handle;
+    }
 
     @Override
     public final OperationResult execute() throws IOException {
@@ -28,7 +35,7 @@ public abstract class AbstractFileOperation implements FileCommand {
             finish();
             logOperation();
 
-            result = OperationResult.success(getAffectedPaths());
+            result = buildResult();
 
         } catch (IOException e) {
             handleError(e);
@@ -63,6 +70,10 @@ public abstract class AbstractFileOperation implements FileCommand {
         return message != null ? message : loc.getString("error.unknownOperation");
     }
 
+    protected OperationResult buildResult() {
+        return OperationResult.success(getAffectedPaths());
+    }
+
     protected abstract void performOperation() throws IOException;
     protected abstract boolean validate();
 
@@ -0,0 +1,94 @@
+package com.filecommander.command;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class ChecksumVerifier implements AutoCloseable {
+    public static final String ALGORITHM = "SHA-256";
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+
+    private final ExecutorService workers;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final BooleanSupplier cancelled;
+    private final ConcurrentLinkedQueue<Path> mismatches = new ConcurrentLinkedQueue<>();
+
+    public ChecksumVerifier(BooleanSupplier cancelled) {
+        this(2, cancelled);
+    }
+
+    public ChecksumVerifier(int parallelism, BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        this.maxInFlight = parallelism * 4;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "verify-worker-" + WORKER_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Checksum algorithm not available: " + ALGORITHM, e);
+        }
+    }
+
+    public void submit(Path target, byte[] expected) {
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+
+        inFlight.acquireUninterruptibly();
+        try {
+            workers.execute(() -> verify(target, expected));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            mismatches.add(target);
+        }
+    }
+
+    private void verify(Path target, byte[] expected) {
+        try {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            byte[] actual = ChunkedFileTransfer.digest(target, newDigest(), cancelled);
+            if (!cancelled.getAsBoolean() && !Arrays.equals(expected, actual)) {
+                System.err.println("Checksum mismatch: " + target);
+                mismatches.add(target);
+            }
+        } catch (IOException e) {
+            if (!cancelled.getAsBoolean()) {
+                System.err.println("Failed to verify: " + target + " - " + e.getMessage());
+                mismatches.add(target);
+            }
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    public List<Path> awaitCompletion() {
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        return new ArrayList<>(mismatches);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,178 @@
+package com.filecommander.command;
+
+import com.filecommander.localization.LocalizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.security.MessageDigest;
+import java.util.function.BooleanSupplier;
+
+public class ChunkedFileTransfer {
+    public static final long LARGE_FILE_THRESHOLD = 64L * 1024 * 1024;
+    private static final long CHUNK_SIZE = 16L * 1024 * 1024;
+    private static final int DIGEST_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ByteBuffer> DIGEST_BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE));
+
+    public interface ChunkListener {
+        void onChunkTransferred(long transferred, long size);
+    }
+
+    private ChunkedFileTransfer() {}
+
+    public static boolean isLargeFile(long size) {
+        return size >= LARGE_FILE_THRESHOLD;
+    }
+
+    public static void transfer(Path source, Path target, BooleanSupplier cancelled,
+                                ChunkListener listener) throws IOException {
+        boolean completed = false;
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long size = in.size();
+
+            long position = 0;
+            while (position < size) {
+                if (cancelled.getAsBoolean()) {
+                    throw new IOException(LocalizationManager.getInstance().getString("operation.cancelled"));
+                }
+
+                long count = Math.min(CHUNK_SIZE, size - position);
+                long written = in.transferTo(position, count, out.position(position));
+                if (written <= 0) {
+                    written = out.transferFrom(in.position(position), position, count);
+                    if (written <= 0) {
+                        throw new IOException("Unexpected end of file: " + source);
+                    }
+                }
+
+                position += written;
+                if (listener != null) {
+                    listener.onChunkTransferred(position, size);
+                }
+            }
+
+            out.force(false);
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(target);
+            }
+        }
+
+        copyAttributes(source, target);
+    }
+
+    public static byte[] transferWithDigest(Path source, Path target, MessageDigest digest,
+                                           BooleanSupplier cancelled, ChunkListener listener) throws IOException {
+        boolean completed = false;
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long size = in.size();
+
+            ByteBuffer buffer = DIGEST_BUFFERS.get();
+            long position = 0;
+            long nextReport = CHUNK_SIZE;
+
+            while (true) {
+                if (cancelled.getAsBoolean()) {
+                    throw new IOException(LocalizationManager.getInstance().getString("operation.cancelled"));
+                }
+
+                buffer.clear();
+                int read = in.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+
+                position += read;
+                if (listener != null && position >= nextReport) {
+                    listener.onChunkTransferred(position, size);
+                    nextReport = position + CHUNK_SIZE;
+                }
+            }
+
+            if (position < size) {
+                out.truncate(position);
+            }
+            if (listener != null) {
+                listener.onChunkTransferred(position, Math.max(size, position));
+            }
+
+            out.force(true);
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(target);
+            }
+        }
+
+        copyAttributes(source, target);
+        return digest.digest();
+    }
+
+    public static byte[] digest(Path file, MessageDigest digest, BooleanSupplier cancelled) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = DIGEST_BUFFERS.get();
+            buffer.clear();
+            while (in.read(buffer) >= 0) {
+                if (cancelled.getAsBoolean()) {
+                    throw new IOException(LocalizationManager.getInstance().getString("operation.cancelled"));
+                }
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    public static void copyAttributes(Path source, Path target) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+        Files.getFileAttributeView(target, BasicFileAttributeView.class)
+                .setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), attrs.creationTime());
+
+        PosixFileAttributeView posixTarget = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (posixTarget != null && Files.getFileAttributeView(source, PosixFileAttributeView.class) != null) {
+            PosixFileAttributes posix = Files.readAttributes(source, PosixFileAttributes.class);
+            posixTarget.setPermissions(posix.permissions());
+            try {
+                posixTarget.setOwner(posix.owner());
+                posixTarget.setGroup(posix.group());
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+
+        DosFileAttributeView dosTarget = Files.getFileAttributeView(target, DosFileAttributeView.class);
+        if (dosTarget != null && Files.getFileAttributeView(source, DosFileAttributeView.class) != null) {
+            DosFileAttributes dos = Files.readAttributes(source, DosFileAttributes.class);
+            dosTarget.setHidden(dos.isHidden());
+            dosTarget.setSystem(dos.isSystem());
+            dosTarget.setArchive(dos.isArchive());
+            dosTarget.setReadOnly(dos.isReadOnly());
+        }
+    }
+}
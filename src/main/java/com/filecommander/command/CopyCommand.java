@@ -1,32 +1,64 @@
 package com.filecommander.command;
 
 import com.filecommander.localization.LocalizationManager;
-import com.filecommander.service.FileOperationService;
+import com.filecommander.model.OperationResult;
+import com.filecommander.model.TransferJournalEntry;
+import com.filecommander.repository.TransferJournalRepository;
+import com.filecommander.service.UndoStagingArea;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class CopyCommand extends AbstractFileOperation {
-    private final Map<Path, byte[]> backupData = new HashMap<>();
-    private final Map<Path, Path> copiedFiles = new HashMap<>();
+public class CopyCommand extends AbstractFileOperation implements StagedUndo {
+    private final Map<Path, Path> stagedOverwrites = new ConcurrentHashMap<>();
+    private volatile long stagedAt = 0;
+    private final Map<Path, Path> copiedFiles = new LinkedHashMap<>();
     private final boolean addCopySuffix;
-    private int totalFiles = 0;
-    private int processedFiles = 0;
+    private final boolean verify;
+    private List<Path> verificationFailures = new ArrayList<>();
+    private ChecksumVerifier verifier;
+    private final TransferJournalEntry resumeFrom;
+    private long journalId = -1;
+    private final AtomicInteger totalFiles = new AtomicInteger();
+    private final AtomicInteger processedFiles = new AtomicInteger();
 
     public CopyCommand(List<Path> sources, Path destination, boolean addCopySuffix) {
+        this(sources, destination, addCopySuffix, false);
+    }
+
+    public CopyCommand(List<Path> sources, Path destination, boolean addCopySuffix, boolean verify) {
         this.sources = sources;
         this.destination = destination;
         this.addCopySuffix = addCopySuffix;
+        this.verify = verify;
+        this.resumeFrom = null;
+    }
+
+    public CopyCommand(TransferJournalEntry resumeFrom, boolean verify) {
+        this.sources = new ArrayList<>(resumeFrom.getRoots().keySet());
+        this.destination = resumeFrom.getDestination();
+        this.addCopySuffix = false;
+        this.verify = verify;
+        this.resumeFrom = resumeFrom;
     }
 
     @Override
     protected boolean validate() {
         LocalizationManager loc = LocalizationManager.getInstance();
         for (Path source : sources) {
+            if (resumeFrom != null && !Files.exists(source)) {
+                continue;
+            }
             if (!Files.exists(source)) {
                 validationError = loc.getString("error.fileNotExist", source.getFileName());
                 return false;
@@ -59,62 +91,109 @@ public class CopyCommand extends AbstractFileOperation {
     @Override
     protected void prepare() {
         super.prepare();
-        try {
-            FileOperationService.getInstance().notifyStatus(LocalizationManager.getInstance().getString("operation.countingFiles"));
-            totalFiles = countFiles();
-        } catch (IOException e) {
-            totalFiles = sources.size();
-        }
+        handle.beginTransfer(0);
+        handle.notifyDiscoveryState(false);
     }
 
-    private int countFiles() throws IOException {
-        int count = 0;
-        for (Path source : sources) {
-            if (Files.isDirectory(source)) {
-                count += countFilesInDirectory(source);
+    @Override
+    protected void performOperation() throws IOException {
+        LocalizationManager loc = LocalizationManager.getInstance();
+        handle.notifyStatus(loc.getString("operation.copying"));
+
+        if (verify) {
+            verifier = new ChecksumVerifier(handle::checkpoint);
+        }
+
+        TransferJournalRepository journal = TransferJournalRepository.getInstance();
+        Map<Path, Path> roots = resolveTargets();
+        journalId = resumeFrom != null ? resumeFrom.getId() : journal.begin(TransferJournalEntry.COPY, destination, roots);
+        boolean completed = false;
+
+        try (ParallelCopyEngine engine = new ParallelCopyEngine(
+                this::copyFile,
+                (file, target) -> {
+                    journal.recordCompleted(journalId, file, target);
+                    handle.notifyProgress(processedFiles.incrementAndGet(), totalFiles.get(), file.getFileName().toString());
+                },
+                handle::checkpoint)) {
+
+            for (Map.Entry<Path, Path> root : roots.entrySet()) {
+                if (handle.checkpoint()) {
+                    break;
+                }
+
+                Path source = root.getKey();
+                Path targetPath = root.getValue();
+                copiedFiles.put(source, targetPath);
+
+                if (Files.isDirectory(source)) {
+                    copyDirectory(source, targetPath, engine);
+                } else if (Files.exists(source)) {
+                    submitFile(source, targetPath, Files.size(source), engine);
+                }
+            }
+
+            handle.notifyDiscoveryState(true);
+            engine.awaitCompletion();
+
+            if (verifier != null) {
+                handle.notifyStatus(loc.getString("operation.verifying"));
+                verificationFailures = verifier.awaitCompletion();
+            }
+            completed = true;
+        } finally {
+            if (completed || handle.isCancelled()) {
+                journal.finish(journalId);
             } else {
-                count++;
+                journal.flush();
+            }
+            handle.endTransfer();
+            if (verifier != null) {
+                verifier.close();
+                verifier = null;
             }
         }
-        return count;
-    }
 
-    private int countFilesInDirectory(Path directory) throws IOException {
-        final int[] count = {0};
-        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                count[0]++;
-                return FileVisitResult.CONTINUE;
-            }
-        });
-        return count[0];
+        if (handle.isCancelled()) {
+            throw new IOException(loc.getString("operation.cancelled"));
+        }
     }
 
     @Override
-    protected void performOperation() throws IOException {
-        FileOperationService service = FileOperationService.getInstance();
-        service.notifyStatus(LocalizationManager.getInstance().getString("operation.copying"));
+    protected OperationResult buildResult() {
+        if (!verificationFailures.isEmpty()) {
+            return OperationResult.successWithMismatches(getAffectedPaths(), verificationFailures);
+        }
+        return super.buildResult();
+    }
 
-        for (Path source : sources) {
-            if (service.isCancelled()) {
-                throw new IOException(LocalizationManager.getInstance().getString("operation.cancelled"));
-            }
+    private Map<Path, Path> resolveTargets() {
+        if (resumeFrom != null) {
+            return resumeFrom.getRoots();
+        }
 
-            Path targetPath = getUniqueTargetPathWithCopySuffix(source);
-            copiedFiles.put(source, targetPath);
+        Map<Path, Path> roots = new LinkedHashMap<>();
+        Set<Path> claimed = new HashSet<>();
+        for (Path source : sources) {
+            Path target = getUniqueTargetPathWithCopySuffix(source, claimed);
+            claimed.add(target);
+            roots.put(source, target);
+        }
+        return roots;
+    }
 
-            if (Files.isDirectory(source)) {
-                copyDirectory(source, targetPath);
-            } else {
-                copyFile(source, targetPath);
-                processedFiles++;
-                service.notifyProgress(processedFiles, totalFiles, source.getFileName().toString());
-            }
+    private void submitFile(Path source, Path target, long size, ParallelCopyEngine engine) throws IOException {
+        if (resumeFrom != null && resumeFrom.isCompleted(source)) {
+            return;
         }
+
+        totalFiles.incrementAndGet();
+        handle.addTransferTotal(size);
+        TransferJournalRepository.getInstance().recordPlanned(journalId, source, target);
+        engine.submit(source, target);
     }
 
-    private Path getUniqueTargetPathWithCopySuffix(Path source) {
+    private Path getUniqueTargetPathWithCopySuffix(Path source, Set<Path> claimed) {
         String fileName = source.getFileName().toString();
         String baseName;
         String extension = "";
@@ -137,14 +216,14 @@ public class CopyCommand extends AbstractFileOperation {
         }
 
         Path targetPath = destination.resolve(baseName + suffix + extension);
-        if (!Files.exists(targetPath)) {
+        if (!Files.exists(targetPath) && !claimed.contains(targetPath)) {
             return targetPath;
         }
 
         int counter = 2;
         while (counter < 10000) {
             targetPath = destination.resolve(baseName + suffix + " (" + counter + ")" + extension);
-            if (!Files.exists(targetPath)) {
+            if (!Files.exists(targetPath) && !claimed.contains(targetPath)) {
                 return targetPath;
             }
             counter++;
@@ -155,19 +234,65 @@ public class CopyCommand extends AbstractFileOperation {
     }
 
     private void copyFile(Path source, Path target) throws IOException {
-        if (Files.exists(target)) {
-            backupData.put(target, Files.readAllBytes(target));
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        Path staged = null;
+        if (resumeFrom != null) {
+            Files.deleteIfExists(target);
+        } else if (Files.exists(target)) {
+            staged = staging.stage(target);
+            stagedOverwrites.put(target, staged);
+            stagedAt = System.currentTimeMillis();
         }
-        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+
+        try {
+            long size = Files.size(source);
+            if (verifier != null) {
+                copyAndVerify(source, target, size);
+            } else if (ChunkedFileTransfer.isLargeFile(size)) {
+                copyLargeFile(source, target);
+            } else {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                handle.addTransferredBytes(size);
+            }
+        } catch (IOException e) {
+            if (staged != null) {
+                Files.deleteIfExists(target);
+                staging.restore(staged, target);
+                stagedOverwrites.remove(target);
+            }
+            throw e;
+        }
+    }
+
+    private void copyLargeFile(Path source, Path target) throws IOException {
+        ChunkedFileTransfer.transfer(source, target, handle::checkpoint, chunkListener(source, true));
     }
 
-    private void copyDirectory(Path source, Path target) throws IOException {
-        FileOperationService service = FileOperationService.getInstance();
+    private void copyAndVerify(Path source, Path target, long size) throws IOException {
+        byte[] expected = ChunkedFileTransfer.transferWithDigest(source, target, ChecksumVerifier.newDigest(),
+                handle::checkpoint, chunkListener(source, ChunkedFileTransfer.isLargeFile(size)));
+        verifier.submit(target, expected);
+    }
 
+    private ChunkedFileTransfer.ChunkListener chunkListener(Path source, boolean showPercentage) {
+        String fileName = source.getFileName().toString();
+        long[] reported = {0};
+
+        return (transferred, size) -> {
+            handle.addTransferredBytes(transferred - reported[0]);
+            reported[0] = transferred;
+            if (showPercentage && size > 0) {
+                int percentage = (int) ((transferred * 100) / size);
+                handle.notifyProgress(processedFiles.get(), totalFiles.get(), fileName + " (" + percentage + "%)");
+            }
+        };
+    }
+
+    private void copyDirectory(Path source, Path target, ParallelCopyEngine engine) throws IOException {
         Files.walkFileTree(source, new SimpleFileVisitor<>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                if (service.isCancelled()) {
+                if (engine.isStopped()) {
                     return FileVisitResult.TERMINATE;
                 }
                 Path targetDir = target.resolve(source.relativize(dir));
@@ -179,13 +304,10 @@ public class CopyCommand extends AbstractFileOperation {
 
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                if (service.isCancelled()) {
+                if (engine.isStopped()) {
                     return FileVisitResult.TERMINATE;
                 }
-                Path targetFile = target.resolve(source.relativize(file));
-                copyFile(file, targetFile);
-                processedFiles++;
-                service.notifyProgress(processedFiles, totalFiles, file.getFileName().toString());
+                submitFile(file, target.resolve(source.relativize(file)), attrs.size(), engine);
                 return FileVisitResult.CONTINUE;
             }
 
@@ -218,9 +340,31 @@ public class CopyCommand extends AbstractFileOperation {
                 }
             }
         }
-        for (Map.Entry<Path, byte[]> entry : backupData.entrySet()) {
-            Files.write(entry.getKey(), entry.getValue());
+        for (Map.Entry<Path, Path> entry : stagedOverwrites.entrySet()) {
+            if (Files.exists(entry.getValue())) {
+                UndoStagingArea.getInstance().restore(entry.getValue(), entry.getKey());
+            }
+        }
+        stagedOverwrites.clear();
+    }
+
+    @Override
+    public Collection<Path> getStagedPaths() {
+        return new ArrayList<>(stagedOverwrites.values());
+    }
+
+    @Override
+    public long getStagedAt() {
+        return stagedAt;
+    }
+
+    @Override
+    public void discard() {
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        for (Path staged : getStagedPaths()) {
+            staging.purgeInBackground(staged);
         }
+        stagedOverwrites.clear();
     }
 
     private void deleteDirectory(Path dir) throws IOException {
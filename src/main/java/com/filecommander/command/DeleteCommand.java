@@ -1,21 +1,32 @@
 package com.filecommander.command;
 
 import com.filecommander.localization.LocalizationManager;
-import com.filecommander.service.FileOperationService;
+import com.filecommander.service.UndoStagingArea;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-
-public class DeleteCommand extends AbstractFileOperation {
-    private Map<Path, byte[]> deletedFilesBackup = new HashMap<>();
-    private List<Path> deletedDirectories = new ArrayList<>();
-    private int totalFiles = 0;
-    private int processedFiles = 0;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DeleteCommand extends AbstractFileOperation implements StagedUndo {
+    private Map<Path, byte[]> deletedFilesBackup = new ConcurrentHashMap<>();
+    private Map<Path, Path> deletedLinksBackup = new ConcurrentHashMap<>();
+    private List<Path> deletedDirectories = Collections.synchronizedList(new ArrayList<>());
+    private Map<Path, Path> stagedItems = new LinkedHashMap<>();
+    private volatile long stagedAt = 0;
+    private final boolean useStaging;
+    private final AtomicInteger totalFiles = new AtomicInteger();
+    private final AtomicInteger processedFiles = new AtomicInteger();
 
     public DeleteCommand(List<Path> sources) {
+        this(sources, true);
+    }
+
+    public DeleteCommand(List<Path> sources, boolean useStaging) {
         this.sources = sources;
+        this.useStaging = useStaging;
     }
 
     @Override
@@ -39,132 +50,119 @@ public class DeleteCommand extends AbstractFileOperation {
     @Override
     protected void prepare() {
         super.prepare();
-        FileOperationService service = FileOperationService.getInstance();
-        try {
-            service.notifyStatus(LocalizationManager.getInstance().getString("operation.countingFiles"));
-            totalFiles = countFiles();
-        } catch (IOException e) {
-            totalFiles = sources.size();
+        handle.beginTransfer(0);
+        if (useStaging) {
+            totalFiles.set(sources.size());
+        } else {
+            handle.notifyDiscoveryState(false);
         }
     }
 
-    private int countFiles() throws IOException {
-        int count = 0;
-        for (Path source : sources) {
-            if (Files.isDirectory(source)) {
-                count += countFilesInDirectory(source);
-            } else {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private int countFilesInDirectory(Path directory) throws IOException {
-        final int[] count = {0};
-        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                count[0]++;
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                return FileVisitResult.CONTINUE;
-            }
-        });
-        return count[0];
-    }
-
     @Override
     protected void performOperation() throws IOException {
-        FileOperationService service = FileOperationService.getInstance();
         LocalizationManager loc = LocalizationManager.getInstance();
-        service.notifyStatus(loc.getString("operation.deletingFiles"));
+        handle.notifyStatus(loc.getString("operation.deletingFiles"));
 
-        for (Path source : sources) {
-            if (service.isCancelled()) {
-                throw new IOException(loc.getString("operation.cancelled"));
-            }
+        try {
+            for (Path source : sources) {
+                if (handle.checkpoint()) {
+                    throw new IOException(loc.getString("operation.cancelled"));
+                }
 
-            if (Files.isDirectory(source)) {
-                backupAndDeleteDirectory(source);
-            } else {
-                backupAndDeleteFile(source);
+                if (useStaging && !UndoStagingArea.getInstance().isStaged(source)) {
+                    stageItem(source);
+                    handle.notifyProgress(processedFiles.incrementAndGet(), totalFiles.get(), source.getFileName().toString());
+                } else if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                    if (useStaging) {
+                        totalFiles.decrementAndGet();
+                        handle.notifyDiscoveryState(false);
+                    }
+                    backupAndDeleteDirectory(source);
+                } else {
+                    if (!useStaging) {
+                        totalFiles.incrementAndGet();
+                    }
+                    backupAndDeleteFile(source);
+                }
             }
+        } finally {
+            handle.notifyDiscoveryState(true);
+            handle.endTransfer();
+        }
+    }
+
+    private void stageItem(Path source) throws IOException {
+        try {
+            stagedItems.put(source, UndoStagingArea.getInstance().stage(source));
+            stagedAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            System.err.println("Staging failed, not deleting: " + source + " - " + e.getMessage());
+            throw new IOException(LocalizationManager.getInstance().getString("error.stagingFailed",
+                    source.getFileName(), e.getMessage()), e);
         }
     }
 
     private void backupAndDeleteFile(Path file) throws IOException {
-        FileOperationService service = FileOperationService.getInstance();
+        long size = 0;
 
         try {
-            long size = Files.size(file);
-            if (size < 100 * 1024 * 1024) {
-                deletedFilesBackup.put(file, Files.readAllBytes(file));
-            } else {
-                System.out.println("Skipping backup for large file: " + file);
-            }
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            size = attrs.size();
+            backupFile(file, attrs);
         } catch (IOException e) {
             System.err.println("Failed to backup file: " + file);
         }
 
+        handle.addTransferTotal(size);
         forceDelete(file);
-        processedFiles++;
-        service.notifyProgress(processedFiles, totalFiles, file.getFileName().toString());
+        handle.addTransferredBytes(size);
+        handle.notifyProgress(processedFiles.incrementAndGet(), totalFiles.get(), file.getFileName().toString());
     }
 
     private void backupAndDeleteDirectory(Path dir) throws IOException {
-        FileOperationService service = FileOperationService.getInstance();
-        deletedDirectories.add(dir);
 
-        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+        new ParallelTreeDeleter(new ParallelTreeDeleter.EntryHandler() {
             @Override
-            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) {
-                if (!subDir.equals(dir)) {
-                    deletedDirectories.add(subDir);
-                }
-                return FileVisitResult.CONTINUE;
+            public void onDirectoryEntered(Path subDir) {
+                deletedDirectories.add(subDir);
             }
 
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
-                    throws IOException {
-                if (service.isCancelled()) {
-                    return FileVisitResult.TERMINATE;
-                }
+            public void onFileDiscovered(Path file, BasicFileAttributes attrs) {
+                totalFiles.incrementAndGet();
+                handle.addTransferTotal(attrs.size());
+            }
 
+            @Override
+            public void deleteFile(Path file, BasicFileAttributes attrs) throws IOException {
                 try {
-                    long size = Files.size(file);
-                    if (size < 100 * 1024 * 1024) {
-                        deletedFilesBackup.put(file, Files.readAllBytes(file));
-                    }
+                    backupFile(file, attrs);
                 } catch (IOException e) {
                     System.err.println("Failed to backup file: " + file);
                 }
 
                 forceDelete(file);
-                processedFiles++;
-                service.notifyProgress(processedFiles, totalFiles, file.getFileName().toString());
-                return FileVisitResult.CONTINUE;
+                handle.addTransferredBytes(attrs.size());
+                handle.notifyProgress(processedFiles.incrementAndGet(), totalFiles.get(), file.getFileName().toString());
             }
 
             @Override
-            public FileVisitResult postVisitDirectory(Path subDir, IOException exc)
-                    throws IOException {
-                if (exc == null) {
-                    forceDelete(subDir);
-                }
-                return FileVisitResult.CONTINUE;
+            public void deleteDirectory(Path subDir) throws IOException {
+                forceDelete(subDir);
             }
+        }, handle::checkpoint).delete(dir);
+    }
 
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                System.err.println("Failed to delete: " + file);
-                return FileVisitResult.CONTINUE;
-            }
-        });
+    private void backupFile(Path file, BasicFileAttributes attrs) throws IOException {
+        if (attrs.isSymbolicLink()) {
+            deletedLinksBackup.put(file, Files.readSymbolicLink(file));
+        } else if (!attrs.isRegularFile()) {
+            System.out.println("Skipping backup for special file: " + file);
+        } else if (attrs.size() < 100 * 1024 * 1024) {
+            deletedFilesBackup.put(file, Files.readAllBytes(file));
+        } else {
+            System.out.println("Skipping backup for large file: " + file);
+        }
     }
 
     private void forceDelete(Path path) throws IOException {
@@ -190,34 +188,47 @@ public class DeleteCommand extends AbstractFileOperation {
     @Override
     public void undo() throws IOException {
         System.out.println("Undoing delete operation...");
-        FileOperationService service = FileOperationService.getInstance();
         LocalizationManager loc = LocalizationManager.getInstance();
 
-        service.notifyStatus(loc.getString("operation.restoring"));
+        handle.notifyStatus(loc.getString("operation.restoring"));
 
-        int totalToRestore = deletedDirectories.size() + deletedFilesBackup.size();
+        int totalToRestore = stagedItems.size() + deletedDirectories.size() + deletedFilesBackup.size()
+                + deletedLinksBackup.size();
         int restoredCount = 0;
 
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        Iterator<Map.Entry<Path, Path>> stagedIterator = stagedItems.entrySet().iterator();
+        while (stagedIterator.hasNext()) {
+            if (handle.isCancelled()) break;
+
+            Map.Entry<Path, Path> entry = stagedIterator.next();
+            staging.restore(entry.getValue(), entry.getKey());
+            stagedIterator.remove();
+
+            restoredCount++;
+            handle.notifyProgress(restoredCount, totalToRestore, loc.getString("operation.restoringFile") + " " + entry.getKey().getFileName());
+        }
+
         Collections.reverse(deletedDirectories);
         for (Path dir : deletedDirectories) {
-            if (service.isCancelled()) break;
+            if (handle.isCancelled()) break;
 
             if (!Files.exists(dir)) {
                 Files.createDirectories(dir);
             }
 
             restoredCount++;
-            service.notifyProgress(restoredCount, totalToRestore, loc.getString("operation.restoringFolder") + " " + dir.getFileName());
+            handle.notifyProgress(restoredCount, totalToRestore, loc.getString("operation.restoringFolder") + " " + dir.getFileName());
         }
 
         for (Map.Entry<Path, byte[]> entry : deletedFilesBackup.entrySet()) {
-            if (service.isCancelled()) break;
+            if (handle.isCancelled()) break;
 
             Path path = entry.getKey();
             byte[] content = entry.getValue();
 
             restoredCount++;
-            service.notifyProgress(restoredCount, totalToRestore, loc.getString("operation.restoringFile") + " " + path.getFileName());
+            handle.notifyProgress(restoredCount, totalToRestore, loc.getString("operation.restoringFile") + " " + path.getFileName());
 
             if (!Files.exists(path)) {
                 Path parent = path.getParent();
@@ -227,6 +238,42 @@ public class DeleteCommand extends AbstractFileOperation {
                 Files.write(path, content);
             }
         }
+
+        for (Map.Entry<Path, Path> entry : deletedLinksBackup.entrySet()) {
+            if (handle.isCancelled()) break;
+
+            Path link = entry.getKey();
+
+            restoredCount++;
+            handle.notifyProgress(restoredCount, totalToRestore, loc.getString("operation.restoringFile") + " " + link.getFileName());
+
+            if (!Files.exists(link, LinkOption.NOFOLLOW_LINKS)) {
+                Path parent = link.getParent();
+                if (parent != null && !Files.exists(parent)) {
+                    Files.createDirectories(parent);
+                }
+                Files.createSymbolicLink(link, entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public Collection<Path> getStagedPaths() {
+        return new ArrayList<>(stagedItems.values());
+    }
+
+    @Override
+    public long getStagedAt() {
+        return stagedAt;
+    }
+
+    @Override
+    public void discard() {
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        for (Path staged : stagedItems.values()) {
+            staging.purgeInBackground(staged);
+        }
+        stagedItems.clear();
     }
 
     @Override
@@ -0,0 +1,258 @@
+package com.filecommander.command;
+
+import com.filecommander.localization.LocalizationManager;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32C;
+
+public class DeltaFileTransfer {
+    private static final int MIN_BLOCK_SIZE = 64 * 1024;
+    private static final int MAX_BLOCKS = 65536;
+    private static final long REPORT_INTERVAL = 16L * 1024 * 1024;
+    private static final long BATCH_BYTES = 16L * 1024 * 1024;
+
+    private DeltaFileTransfer() {}
+
+    public static boolean isCandidate(Path source, Path target) throws IOException {
+        if (!Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)
+                || !Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        return ChunkedFileTransfer.isLargeFile(Files.size(source))
+                && ChunkedFileTransfer.isLargeFile(Files.size(target));
+    }
+
+    public static long transfer(Path source, Path target, Path undoLog, BooleanSupplier cancelled,
+                                ChunkedFileTransfer.ChunkListener listener) throws IOException {
+        long targetSize = Files.size(target);
+        int blockSize = blockSize(targetSize);
+        Signatures signatures = computeSignatures(target, blockSize, cancelled);
+        long written = 0;
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel logChannel = FileChannel.open(undoLog, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             DataOutputStream log = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel)))) {
+
+            log.writeLong(targetSize);
+            log.writeLong(Files.getLastModifiedTime(target).toMillis());
+
+            long sourceSize = in.size();
+            ByteBuffer block = ByteBuffer.allocate(blockSize);
+            ByteBuffer original = ByteBuffer.allocate(blockSize);
+            MessageDigest digest = ChecksumVerifier.newDigest();
+            long position = 0;
+            long nextReport = REPORT_INTERVAL;
+            List<PendingWrite> batch = new ArrayList<>();
+            long batchBytes = 0;
+
+            while (position < sourceSize) {
+                if (cancelled.getAsBoolean()) {
+                    throw new IOException(LocalizationManager.getInstance().getString("operation.cancelled"));
+                }
+
+                block.clear();
+                readFully(in, block, position);
+                block.flip();
+                int length = block.remaining();
+                if (length == 0) {
+                    break;
+                }
+
+                if (!signatures.matches((int) (position / blockSize), block, digest)) {
+                    int overlap = (int) Math.min(length, Math.max(0, targetSize - position));
+                    saveOriginal(out, original, position, overlap, log);
+                    batch.add(new PendingWrite(position, ByteBuffer.allocate(length).put(block).flip()));
+                    batchBytes += length;
+                    written += length;
+                    if (batchBytes >= BATCH_BYTES) {
+                        writeBatch(out, batch, log, logChannel);
+                        batchBytes = 0;
+                    }
+                }
+
+                position += length;
+                if (listener != null && (position >= nextReport || position >= sourceSize)) {
+                    listener.onChunkTransferred(position, sourceSize);
+                    nextReport = position + REPORT_INTERVAL;
+                }
+            }
+
+            for (long offset = position; offset < targetSize; offset += blockSize) {
+                saveOriginal(out, original, offset, (int) Math.min(blockSize, targetSize - offset), log);
+            }
+            writeBatch(out, batch, log, logChannel);
+            if (position < targetSize) {
+                out.truncate(position);
+            }
+
+            out.force(false);
+        } catch (IOException | RuntimeException e) {
+            if (Files.exists(undoLog)) {
+                try {
+                    revert(target, undoLog);
+                } catch (IOException revertError) {
+                    System.err.println("Failed to roll back delta copy: " + target + " - " + revertError.getMessage());
+                }
+            }
+            throw e;
+        }
+
+        Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+        return written;
+    }
+
+    public static void revert(Path target, Path undoLog) throws IOException {
+        long originalTime;
+        try (DataInputStream log = new DataInputStream(new BufferedInputStream(Files.newInputStream(undoLog)));
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+
+            long originalSize = log.readLong();
+            originalTime = log.readLong();
+
+            while (true) {
+                long offset;
+                byte[] data;
+                try {
+                    offset = log.readLong();
+                    data = new byte[log.readInt()];
+                    log.readFully(data);
+                } catch (EOFException e) {
+                    break;
+                }
+                writeFully(out, ByteBuffer.wrap(data), offset);
+            }
+
+            out.truncate(originalSize);
+            out.force(false);
+        }
+        Files.setLastModifiedTime(target, FileTime.fromMillis(originalTime));
+    }
+
+    private static int blockSize(long size) {
+        long perBlock = (size + MAX_BLOCKS - 1) / MAX_BLOCKS;
+        int blockSize = MIN_BLOCK_SIZE;
+        while (blockSize < perBlock) {
+            blockSize <<= 1;
+        }
+        return blockSize;
+    }
+
+    private static Signatures computeSignatures(Path target, int blockSize, BooleanSupplier cancelled) throws IOException {
+        try (FileChannel in = FileChannel.open(target, StandardOpenOption.READ)) {
+            long size = in.size();
+            int count = (int) ((size + blockSize - 1) / blockSize);
+            Signatures signatures = new Signatures(count);
+            ByteBuffer block = ByteBuffer.allocate(blockSize);
+            MessageDigest digest = ChecksumVerifier.newDigest();
+
+            for (int index = 0; index < count; index++) {
+                if (cancelled.getAsBoolean()) {
+                    throw new IOException(LocalizationManager.getInstance().getString("operation.cancelled"));
+                }
+                block.clear();
+                readFully(in, block, (long) index * blockSize);
+                block.flip();
+                signatures.lengths[index] = block.remaining();
+                signatures.weak[index] = weakChecksum(block);
+                signatures.strong[index] = strongChecksum(block, digest);
+            }
+            return signatures;
+        }
+    }
+
+    private static void writeBatch(FileChannel out, List<PendingWrite> batch, DataOutputStream log,
+                                   FileChannel logChannel) throws IOException {
+        log.flush();
+        logChannel.force(true);
+        for (PendingWrite write : batch) {
+            writeFully(out, write.data, write.position);
+        }
+        batch.clear();
+    }
+
+    private static void saveOriginal(FileChannel out, ByteBuffer original, long position, int length,
+                                     DataOutputStream log) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        original.clear().limit(length);
+        readFully(out, original, position);
+        log.writeLong(position);
+        log.writeInt(original.position());
+        log.write(original.array(), 0, original.position());
+    }
+
+    private static int weakChecksum(ByteBuffer block) {
+        CRC32C crc = new CRC32C();
+        crc.update(block.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static byte[] strongChecksum(ByteBuffer block, MessageDigest digest) {
+        digest.reset();
+        digest.update(block.duplicate());
+        return digest.digest();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static class PendingWrite {
+        private final long position;
+        private final ByteBuffer data;
+
+        PendingWrite(long position, ByteBuffer data) {
+            this.position = position;
+            this.data = data;
+        }
+    }
+
+    private static class Signatures {
+        private final int[] lengths;
+        private final int[] weak;
+        private final byte[][] strong;
+
+        Signatures(int count) {
+            this.lengths = new int[count];
+            this.weak = new int[count];
+            this.strong = new byte[count][];
+        }
+
+        boolean matches(int index, ByteBuffer block, MessageDigest digest) {
+            if (index >= lengths.length || lengths[index] != block.remaining()) {
+                return false;
+            }
+            if (weak[index] != weakChecksum(block)) {
+                return false;
+            }
+            return Arrays.equals(strong[index], strongChecksum(block, digest));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.filecommander.command;
 
 import com.filecommander.model.OperationResult;
+import com.filecommander.service.OperationHandle;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
@@ -10,4 +11,6 @@ public interface FileCommand {
     void undo() throws IOException;
     String getDescription();
     List<Path> getAffectedPaths();
+    default void discard() {}
+    default void setHandle(OperationHandle handle) {}
 }
\ No newline at end of file
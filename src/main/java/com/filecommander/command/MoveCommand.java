@@ -1,22 +1,44 @@
 package com.filecommander.command;
 
 import com.filecommander.localization.LocalizationManager;
-import com.filecommander.service.FileOperationService;
+import com.filecommander.model.TransferJournalEntry;
+import com.filecommander.repository.TransferJournalRepository;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class MoveCommand extends AbstractFileOperation {
     private Map<Path, Path> movedFiles = new HashMap<>();
+    private Map<Path, Long> sourceBytes = new HashMap<>();
+    private final TransferJournalEntry resumeFrom;
 
     public MoveCommand(List<Path> sources, Path destination) {
         this.sources = sources;
         this.destination = destination;
+        this.resumeFrom = null;
+    }
+
+    public MoveCommand(TransferJournalEntry resumeFrom) {
+        this.sources = new ArrayList<>();
+        for (Path source : resumeFrom.getRoots().keySet()) {
+            if (!resumeFrom.isCompleted(source) && Files.exists(source)) {
+                sources.add(source);
+            }
+        }
+        this.destination = resumeFrom.getDestination();
+        this.resumeFrom = resumeFrom;
     }
 
     @Override
@@ -35,7 +57,8 @@ public class MoveCommand extends AbstractFileOperation {
             }
 
             Path target = destination.resolve(source.getFileName());
-            if (Files.exists(target)) {
+            boolean partialTarget = resumeFrom != null && Files.exists(target, LinkOption.NOFOLLOW_LINKS);
+            if (Files.exists(target) && !partialTarget) {
                 validationError = loc.getString("error.fileExistsDestination", source.getFileName());
                 return false;
             }
@@ -59,38 +82,160 @@ public class MoveCommand extends AbstractFileOperation {
         return true;
     }
 
+    @Override
+    protected void prepare() {
+        super.prepare();
+        long totalBytes = 0;
+        for (Path source : sources) {
+            long bytes = measureBytesToMove(source);
+            sourceBytes.put(source, bytes);
+            totalBytes += bytes;
+        }
+        handle.beginTransfer(totalBytes);
+    }
+
+    private long measureBytesToMove(Path source) {
+        try {
+            if (!Files.isDirectory(source)) {
+                return Files.size(source);
+            }
+            if (Files.getFileStore(source).equals(Files.getFileStore(destination))) {
+                return 0;
+            }
+
+            final long[] total = {0};
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    total[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return total[0];
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
     @Override
     protected void performOperation() throws IOException {
-        FileOperationService service = FileOperationService.getInstance();
         LocalizationManager loc = LocalizationManager.getInstance();
-        service.notifyStatus(loc.getString("operation.moving"));
+        handle.notifyStatus(loc.getString("operation.moving"));
 
         int total = sources.size();
         int current = 0;
 
-        for (Path source : sources) {
-            if (service.isCancelled()) {
-                throw new IOException(loc.getString("operation.cancelled"));
+        TransferJournalRepository journal = TransferJournalRepository.getInstance();
+        long journalId = resumeFrom != null ? resumeFrom.getId() : -1;
+        if (resumeFrom == null) {
+            Map<Path, Path> roots = new LinkedHashMap<>();
+            for (Path source : sources) {
+                roots.put(source, destination.resolve(source.getFileName()));
             }
+            journalId = journal.begin(TransferJournalEntry.MOVE, destination, roots);
+        }
 
-            Path target = destination.resolve(source.getFileName());
-
-            if (source.equals(target)) {
-                continue;
+        boolean completed = false;
+        try {
+            for (Path source : sources) {
+                if (handle.checkpoint()) {
+                    throw new IOException(loc.getString("operation.cancelled"));
+                }
+
+                Path target = destination.resolve(source.getFileName());
+
+                if (source.equals(target)) {
+                    continue;
+                }
+
+                movedFiles.put(target, source);
+                if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS) && !isSameStore(source, destination)) {
+                    moveTree(source, target, journalId);
+                } else {
+                    journal.recordPlanned(journalId, source, target);
+                    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+                    journal.recordCompleted(journalId, source, target);
+                    handle.addTransferredBytes(sourceBytes.getOrDefault(source, 0L));
+                }
+                current++;
+                handle.notifyProgress(current, total, source.getFileName().toString());
+            }
+            completed = true;
+        } finally {
+            if (completed || handle.isCancelled()) {
+                journal.finish(journalId);
+            } else {
+                journal.flush();
             }
+            handle.endTransfer();
+        }
+    }
 
-            movedFiles.put(target, source);
-            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
-            current++;
-            service.notifyProgress(current, total, source.getFileName().toString());
+    private boolean isSameStore(Path source, Path target) {
+        try {
+            return Files.getFileStore(source).equals(Files.getFileStore(target));
+        } catch (IOException e) {
+            return false;
         }
     }
 
+    private void moveTree(Path source, Path target, long journalId) throws IOException {
+        TransferJournalRepository journal = TransferJournalRepository.getInstance();
+        String cancelled = LocalizationManager.getInstance().getString("operation.cancelled");
+
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (handle.checkpoint()) {
+                    throw new IOException(cancelled);
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (handle.checkpoint()) {
+                    throw new IOException(cancelled);
+                }
+                Path fileTarget = target.resolve(source.relativize(file));
+                if (journalId >= 0) {
+                    journal.recordPlanned(journalId, file, fileTarget);
+                }
+                Files.move(file, fileTarget, StandardCopyOption.REPLACE_EXISTING);
+                if (journalId >= 0) {
+                    journal.recordCompleted(journalId, file, fileTarget);
+                }
+                handle.addTransferredBytes(attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     @Override
     public void undo() throws IOException {
         for (Map.Entry<Path, Path> entry : movedFiles.entrySet()) {
-            if (Files.exists(entry.getKey())) {
+            if (!Files.exists(entry.getKey(), LinkOption.NOFOLLOW_LINKS)) {
+                continue;
+            }
+            try {
                 Files.move(entry.getKey(), entry.getValue(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                moveTree(entry.getKey(), entry.getValue(), -1);
             }
         }
     }
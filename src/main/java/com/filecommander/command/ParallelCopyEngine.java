@@ -0,0 +1,130 @@
+package com.filecommander.command;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+public class ParallelCopyEngine implements AutoCloseable {
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+
+    public interface FileTransfer {
+        void transfer(Path source, Path target) throws IOException;
+    }
+
+    public interface CompletionListener {
+        void onFileCompleted(Path source, Path target);
+    }
+
+    private final ExecutorService workers;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final FileTransfer transfer;
+    private final CompletionListener listener;
+    private final BooleanSupplier cancelled;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private volatile boolean closing = false;
+
+    public ParallelCopyEngine(FileTransfer transfer, CompletionListener listener, BooleanSupplier cancelled) {
+        this(defaultParallelism(), transfer, listener, cancelled);
+    }
+
+    public ParallelCopyEngine(int parallelism, FileTransfer transfer,
+                              CompletionListener listener, BooleanSupplier cancelled) {
+        this.transfer = transfer;
+        this.listener = listener;
+        this.cancelled = cancelled;
+        this.maxInFlight = parallelism * 4;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "copy-worker-" + WORKER_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static int defaultParallelism() {
+        return Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public boolean isStopped() {
+        return closing || cancelled.getAsBoolean() || failure.get() != null;
+    }
+
+    public void submit(Path source, Path target) throws IOException {
+        if (isStopped()) {
+            return;
+        }
+
+        try {
+            while (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                if (isStopped()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Copy interrupted", e);
+        }
+
+        try {
+            workers.execute(() -> runTransfer(source, target));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw new IOException("Failed to schedule copy of " + source, e);
+        }
+    }
+
+    private void runTransfer(Path source, Path target) {
+        try {
+            if (isStopped()) {
+                return;
+            }
+            transfer.transfer(source, target);
+            listener.onFileCompleted(source, target);
+        } catch (IOException e) {
+            if (failure.compareAndSet(null, e)) {
+                System.err.println("Failed to copy: " + source + " - " + e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, new IOException(e.getMessage(), e));
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    public void awaitCompletion() throws IOException {
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+
+        IOException error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        workers.shutdown();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (workers.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.filecommander.command;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+public class ParallelTreeDeleter {
+    private static final int FILE_BATCH_SIZE = 256;
+
+    public interface EntryHandler {
+        void onDirectoryEntered(Path dir);
+        void onFileDiscovered(Path file, BasicFileAttributes attrs);
+        void deleteFile(Path file, BasicFileAttributes attrs) throws IOException;
+        void deleteDirectory(Path dir) throws IOException;
+    }
+
+    private final EntryHandler handler;
+    private final BooleanSupplier cancelled;
+    private final int parallelism;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    public ParallelTreeDeleter(EntryHandler handler, BooleanSupplier cancelled) {
+        this(ParallelCopyEngine.defaultParallelism(), handler, cancelled);
+    }
+
+    public ParallelTreeDeleter(int parallelism, EntryHandler handler, BooleanSupplier cancelled) {
+        this.parallelism = parallelism;
+        this.handler = handler;
+        this.cancelled = cancelled;
+    }
+
+    public void delete(Path root) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(root));
+        } finally {
+            pool.shutdown();
+        }
+
+        IOException error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private boolean isStopped() {
+        return cancelled.getAsBoolean() || failure.get() != null;
+    }
+
+    private void recordFailure(IOException e) {
+        failure.compareAndSet(null, e);
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path dir;
+
+        DirectoryTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            if (isStopped()) {
+                return;
+            }
+            handler.onDirectoryEntered(dir);
+
+            List<ForkJoinTask<?>> subtasks = new ArrayList<>();
+            List<FileEntry> batch = new ArrayList<>();
+            boolean listed = true;
+
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    if (isStopped()) {
+                        break;
+                    }
+
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        System.err.println("Failed to delete: " + child);
+                        continue;
+                    }
+
+                    if (attrs.isDirectory()) {
+                        subtasks.add(new DirectoryTask(child).fork());
+                    } else {
+                        handler.onFileDiscovered(child, attrs);
+                        batch.add(new FileEntry(child, attrs));
+                        if (batch.size() >= FILE_BATCH_SIZE) {
+                            subtasks.add(new FileBatchTask(batch).fork());
+                            batch = new ArrayList<>();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to delete: " + dir);
+                listed = false;
+            }
+
+            deleteFiles(batch);
+
+            for (ForkJoinTask<?> subtask : subtasks) {
+                subtask.join();
+            }
+
+            if (listed && !isStopped()) {
+                try {
+                    handler.deleteDirectory(dir);
+                } catch (IOException e) {
+                    recordFailure(e);
+                }
+            }
+        }
+    }
+
+    private class FileBatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<FileEntry> files;
+
+        FileBatchTask(List<FileEntry> files) {
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            deleteFiles(files);
+        }
+    }
+
+    private void deleteFiles(List<FileEntry> files) {
+        for (FileEntry entry : files) {
+            if (isStopped()) {
+                return;
+            }
+            try {
+                handler.deleteFile(entry.path, entry.attrs);
+            } catch (IOException e) {
+                recordFailure(e);
+                return;
+            }
+        }
+    }
+
+    private static class FileEntry {
+        private final Path path;
+        private final BasicFileAttributes attrs;
+
+        FileEntry(Path path, BasicFileAttributes attrs) {
+            this.path = path;
+            this.attrs = attrs;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.filecommander.command;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+public interface StagedUndo {
+    Collection<Path> getStagedPaths();
+    long getStagedAt();
+}
@@ -0,0 +1,439 @@
+package com.filecommander.command;
+
+import com.filecommander.localization.LocalizationManager;
+import com.filecommander.model.FileItem;
+import com.filecommander.model.OperationResult;
+import com.filecommander.service.FileOperationService;
+import com.filecommander.service.UndoStagingArea;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SyncCommand extends AbstractFileOperation implements StagedUndo {
+    private static final long MTIME_TOLERANCE_MILLIS = 2000;
+
+    private final boolean deleteOrphans;
+    private final Queue<Path> copiedFiles = new ConcurrentLinkedQueue<>();
+    private final Queue<Path> createdDirectories = new ConcurrentLinkedQueue<>();
+    private final Map<Path, Path> stagedOverwrites = new ConcurrentHashMap<>();
+    private final Map<Path, Path> stagedOrphans = new ConcurrentHashMap<>();
+    private final Map<Path, Path> deltaUndoLogs = new ConcurrentHashMap<>();
+    private boolean deltaTransfer;
+    private volatile long stagedAt = 0;
+
+    private final AtomicInteger totalFiles = new AtomicInteger();
+    private final AtomicInteger processedFiles = new AtomicInteger();
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicReference<IOException> scanFailure = new AtomicReference<>();
+
+    public SyncCommand(List<Path> sources, Path destination, boolean deleteOrphans) {
+        this.sources = sources;
+        this.destination = destination;
+        this.deleteOrphans = deleteOrphans;
+    }
+
+    @Override
+    protected boolean validate() {
+        LocalizationManager loc = LocalizationManager.getInstance();
+        if (!Files.isDirectory(destination)) {
+            validationError = loc.getString("error.destNotFolder", destination.getFileName());
+            return false;
+        }
+        if (!Files.isWritable(destination)) {
+            validationError = loc.getString("error.noWriteAccess", destination.getFileName());
+            return false;
+        }
+
+        Path normalizedDestination = destination.toAbsolutePath().normalize();
+        for (Path source : sources) {
+            if (!Files.exists(source)) {
+                validationError = loc.getString("error.fileNotExist", source.getFileName());
+                return false;
+            }
+            Path normalizedSource = source.toAbsolutePath().normalize();
+            if (normalizedDestination.startsWith(normalizedSource)
+                    || normalizedDestination.equals(normalizedSource.getParent())) {
+                validationError = loc.getString("error.syncSameFolder", source.getFileName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void prepare() {
+        super.prepare();
+        deltaTransfer = FileOperationService.getInstance().isDeltaTransferEnabled();
+        handle.beginTransfer(0);
+        handle.notifyDiscoveryState(false);
+    }
+
+    @Override
+    protected void performOperation() throws IOException {
+        LocalizationManager loc = LocalizationManager.getInstance();
+        handle.notifyStatus(loc.getString("operation.syncing"));
+
+        ForkJoinPool scanPool = new ForkJoinPool(ParallelCopyEngine.defaultParallelism());
+        try (ParallelCopyEngine engine = new ParallelCopyEngine(
+                this::copyFile,
+                (file, target) -> handle.notifyProgress(processedFiles.incrementAndGet(), totalFiles.get(), file.getFileName().toString()),
+                handle::checkpoint)) {
+
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (Path source : sources) {
+                Path target = destination.resolve(source.getFileName().toString());
+                BasicFileAttributes sourceAttrs = Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                BasicFileAttributes targetAttrs = readAttributes(target);
+                tasks.add(scanPool.submit(() -> syncEntry(source, sourceAttrs, target, targetAttrs, engine)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+
+            handle.notifyDiscoveryState(true);
+            engine.awaitCompletion();
+        } finally {
+            scanPool.shutdown();
+            handle.endTransfer();
+        }
+
+        IOException error = scanFailure.get();
+        if (error != null) {
+            throw error;
+        }
+        if (handle.isCancelled()) {
+            throw new IOException(loc.getString("operation.cancelled"));
+        }
+    }
+
+    private void syncEntry(Path source, BasicFileAttributes sourceAttrs, Path target,
+                           BasicFileAttributes targetAttrs, ParallelCopyEngine engine) {
+        if (engine.isStopped() || scanFailure.get() != null) {
+            return;
+        }
+
+        try {
+            if (sourceAttrs.isDirectory()) {
+                if (targetAttrs != null && !targetAttrs.isDirectory()) {
+                    stageOverwrite(target);
+                    targetAttrs = null;
+                }
+                if (targetAttrs == null) {
+                    Files.createDirectory(target);
+                    createdDirectories.add(target);
+                }
+                new DirectoryTask(source, target, engine).invoke();
+                return;
+            }
+
+            if (targetAttrs != null && targetAttrs.isDirectory()) {
+                stageOverwrite(target);
+                targetAttrs = null;
+            }
+
+            if (targetAttrs != null && isUnchanged(sourceAttrs, targetAttrs)) {
+                unchangedFiles.incrementAndGet();
+                bytesSaved.addAndGet(sourceAttrs.size());
+                return;
+            }
+
+            totalFiles.incrementAndGet();
+            handle.addTransferTotal(sourceAttrs.size());
+            engine.submit(source, target);
+        } catch (IOException e) {
+            if (scanFailure.compareAndSet(null, e)) {
+                System.err.println("Failed to sync: " + source + " - " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isUnchanged(BasicFileAttributes source, BasicFileAttributes target) {
+        if (source.size() != target.size()) {
+            return false;
+        }
+        long difference = source.lastModifiedTime().toMillis() - target.lastModifiedTime().toMillis();
+        return Math.abs(difference) <= MTIME_TOLERANCE_MILLIS;
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path sourceDir;
+        private final transient Path targetDir;
+        private final transient ParallelCopyEngine engine;
+
+        DirectoryTask(Path sourceDir, Path targetDir, ParallelCopyEngine engine) {
+            this.sourceDir = sourceDir;
+            this.targetDir = targetDir;
+            this.engine = engine;
+        }
+
+        @Override
+        protected void compute() {
+            Map<String, BasicFileAttributes> sourceEntries;
+            Map<String, BasicFileAttributes> targetEntries;
+            try {
+                sourceEntries = list(sourceDir);
+                targetEntries = list(targetDir);
+            } catch (IOException e) {
+                if (scanFailure.compareAndSet(null, e)) {
+                    System.err.println("Failed to sync: " + sourceDir + " - " + e.getMessage());
+                }
+                return;
+            }
+
+            List<ForkJoinTask<?>> subtasks = new ArrayList<>();
+            for (Map.Entry<String, BasicFileAttributes> entry : sourceEntries.entrySet()) {
+                if (engine.isStopped()) {
+                    break;
+                }
+                Path source = sourceDir.resolve(entry.getKey());
+                Path target = targetDir.resolve(entry.getKey());
+                BasicFileAttributes sourceAttrs = entry.getValue();
+                BasicFileAttributes targetAttrs = targetEntries.remove(entry.getKey());
+
+                if (sourceAttrs.isDirectory()) {
+                    subtasks.add(ForkJoinTask.adapt(() -> syncEntry(source, sourceAttrs, target, targetAttrs, engine)).fork());
+                } else {
+                    syncEntry(source, sourceAttrs, target, targetAttrs, engine);
+                }
+            }
+
+            if (deleteOrphans && !engine.isStopped()) {
+                for (String orphan : targetEntries.keySet()) {
+                    stageOrphan(targetDir.resolve(orphan));
+                }
+            }
+
+            for (ForkJoinTask<?> subtask : subtasks) {
+                subtask.join();
+            }
+        }
+    }
+
+    private Map<String, BasicFileAttributes> list(Path dir) throws IOException {
+        Map<String, BasicFileAttributes> entries = new HashMap<>();
+        if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) {
+            return entries;
+        }
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                if (UndoStagingArea.getInstance().isStaged(child)) {
+                    continue;
+                }
+                BasicFileAttributes attrs = readAttributes(child);
+                if (attrs != null) {
+                    entries.put(child.getFileName().toString(), attrs);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void stageOverwrite(Path target) throws IOException {
+        Path staged = UndoStagingArea.getInstance().stage(target);
+        stagedOverwrites.put(target, staged);
+        stagedAt = System.currentTimeMillis();
+    }
+
+    private void stageOrphan(Path target) {
+        try {
+            Path staged = UndoStagingArea.getInstance().stage(target);
+            stagedOrphans.put(target, staged);
+            stagedAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            System.err.println("Failed to remove orphan: " + target + " - " + e.getMessage());
+        }
+    }
+
+    private void copyFile(Path source, Path target) throws IOException {
+        Path staged = null;
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            if (deltaTransfer && DeltaFileTransfer.isCandidate(source, target)) {
+                copyDelta(source, target);
+                return;
+            }
+            stageOverwrite(target);
+            staged = stagedOverwrites.get(target);
+        }
+
+        try {
+            if (Files.isSymbolicLink(source)) {
+                Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                handle.addTransferredBytes(Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).size());
+                if (staged == null) {
+                    copiedFiles.add(target);
+                }
+                return;
+            }
+
+            long size = Files.size(source);
+            if (ChunkedFileTransfer.isLargeFile(size)) {
+                copyLargeFile(source, target);
+            } else {
+                Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                handle.addTransferredBytes(size);
+            }
+            if (staged == null) {
+                copiedFiles.add(target);
+            }
+        } catch (IOException e) {
+            if (staged != null) {
+                Files.deleteIfExists(target);
+                UndoStagingArea.getInstance().restore(staged, target);
+                stagedOverwrites.remove(target);
+            }
+            throw e;
+        }
+    }
+
+    private void copyLargeFile(Path source, Path target) throws IOException {
+        ChunkedFileTransfer.transfer(source, target, handle::checkpoint, chunkListener(source));
+    }
+
+    private void copyDelta(Path source, Path target) throws IOException {
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        Path undoLog = staging.reserve(target);
+        long written;
+        try {
+            written = DeltaFileTransfer.transfer(source, target, undoLog, handle::checkpoint, chunkListener(source));
+        } catch (IOException e) {
+            staging.purge(undoLog);
+            throw e;
+        }
+        deltaUndoLogs.put(target, undoLog);
+        stagedAt = System.currentTimeMillis();
+        bytesSaved.addAndGet(Math.max(0, Files.size(target) - written));
+    }
+
+    private ChunkedFileTransfer.ChunkListener chunkListener(Path source) {
+        String fileName = source.getFileName().toString();
+        long[] reported = {0};
+
+        return (transferred, size) -> {
+            handle.addTransferredBytes(transferred - reported[0]);
+            reported[0] = transferred;
+            int percentage = (int) ((transferred * 100) / size);
+            handle.notifyProgress(processedFiles.get(), totalFiles.get(), fileName + " (" + percentage + "%)");
+        };
+    }
+
+    @Override
+    protected OperationResult buildResult() {
+        LocalizationManager loc = LocalizationManager.getInstance();
+        String summary = loc.getString("sync.summary",
+                processedFiles.get(), stagedOrphans.size(), unchangedFiles.get(),
+                FileItem.formatSize(bytesSaved.get()));
+        return OperationResult.success(getAffectedPaths(), summary);
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    @Override
+    public String getDescription() {
+        return LocalizationManager.getInstance().getString("operation.description.sync", sources.size(), destination);
+    }
+
+    @Override
+    public void undo() throws IOException {
+        System.out.println("Undoing sync operation...");
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        for (Map.Entry<Path, Path> entry : deltaUndoLogs.entrySet()) {
+            DeltaFileTransfer.revert(entry.getKey(), entry.getValue());
+            staging.purge(entry.getValue());
+        }
+        deltaUndoLogs.clear();
+
+        for (Path file : copiedFiles) {
+            Files.deleteIfExists(file);
+        }
+        copiedFiles.clear();
+
+        for (Path target : stagedOverwrites.keySet()) {
+            if (Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS) || Files.isSymbolicLink(target)) {
+                forceDelete(target);
+            }
+        }
+
+        List<Path> directories = new ArrayList<>(createdDirectories);
+        directories.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+        for (Path dir : directories) {
+            try {
+                Files.deleteIfExists(dir);
+            } catch (DirectoryNotEmptyException e) {
+                System.err.println("Folder changed after sync, keeping: " + dir);
+            }
+        }
+        createdDirectories.clear();
+
+        for (Map<Path, Path> staged : List.of(stagedOverwrites, stagedOrphans)) {
+            for (Map.Entry<Path, Path> entry : staged.entrySet()) {
+                if (Files.exists(entry.getValue(), LinkOption.NOFOLLOW_LINKS)) {
+                    staging.restore(entry.getValue(), entry.getKey());
+                }
+            }
+            staged.clear();
+        }
+    }
+
+    @Override
+    public Collection<Path> getStagedPaths() {
+        List<Path> paths = new ArrayList<>(stagedOverwrites.values());
+        paths.addAll(stagedOrphans.values());
+        paths.addAll(deltaUndoLogs.values());
+        return paths;
+    }
+
+    @Override
+    public long getStagedAt() {
+        return stagedAt;
+    }
+
+    @Override
+    public void discard() {
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        for (Path staged : getStagedPaths()) {
+            staging.purgeInBackground(staged);
+        }
+        stagedOverwrites.clear();
+        stagedOrphans.clear();
+        deltaUndoLogs.clear();
+    }
+
+    private void forceDelete(Path path) throws IOException {
+        try {
+            Files.delete(path);
+        } catch (AccessDeniedException e) {
+            try {
+                Files.setAttribute(path, "dos:readonly", false);
+                Files.delete(path);
+            } catch (Exception ex) {
+                path.toFile().setWritable(true);
+                if (!path.toFile().delete()) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -3,9 +3,15 @@ package com.filecommander.controller;
 import com.filecommander.localization.LocalizationManager;
 import com.filecommander.model.FileItem;
 import com.filecommander.model.OperationResult;
+import com.filecommander.model.TransferJournalEntry;
+import com.filecommander.model.TransferProgress;
 import com.filecommander.observer.FileSystemEvent;
 import com.filecommander.observer.FileSystemObserver;
+import com.filecommander.service.BlockingIoExecutor;
+import com.filecommander.service.DirectoryListingCache;
 import com.filecommander.service.FileOperationService;
+import com.filecommander.service.OperationHandle;
+import com.filecommander.service.ProgressBus;
 import com.filecommander.service.SearchService;
 import com.filecommander.ui.FXFilePanel;
 import com.filecommander.ui.MainWindow;
@@ -14,24 +20,38 @@ import javafx.application.Platform;
 import javafx.scene.control.*;
 
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FileController {
     private static FileController instance;
     private List<FileSystemObserver> observers = new ArrayList<>();
     private FileOperationService operationService;
     private SearchService searchService;
+    private DirectoryListingCache listingCache;
+    public static final Comparator<FileItem> LISTING_ORDER = Comparator.comparing(FileItem::isDirectory).reversed()
+            .thenComparing(FileItem::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(FileItem::getName);
+    private static final int FIRST_BATCH_SIZE = 256;
+    private static final int BATCH_SIZE = 4096;
+    private static final long FIRST_BATCH_NANOS = 30_000_000L;
+    private static final long BATCH_INTERVAL_NANOS = 150_000_000L;
+
     private boolean showHiddenFiles = false;
     private MainWindow mainWindow;
     private List<Path> clipboard = new ArrayList<>();
-    private WebViewProgressDialog progressDialog;
 
     private FileController() {
         this.operationService = FileOperationService.getInstance();
         this.searchService = SearchService.getInstance();
+        this.listingCache = DirectoryListingCache.getInstance();
     }
 
     public MainWindow getMainWindow() {
@@ -110,6 +130,14 @@ public class FileController {
         refreshAllPanels();
     }
 
+    public void toggleVerifyCopies() {
+        operationService.setVerifyCopiesEnabled(!operationService.isVerifyCopiesEnabled());
+    }
+
+    public boolean isVerifyCopies() {
+        return operationService.isVerifyCopiesEnabled();
+    }
+
     public boolean isShowHiddenFiles() {
         return showHiddenFiles;
     }
@@ -177,70 +205,73 @@ public class FileController {
     private void executeCopyWithProgress(List<Path> sources, Path destination, boolean addCopySuffix) {
         LocalizationManager loc = LocalizationManager.getInstance();
 
-        progressDialog = new WebViewProgressDialog(loc.getString("operation.copying"), mainWindow.isDarkTheme());
-        progressDialog.setOnCancel(() -> operationService.cancelCurrentOperation());
-
-        operationService.setProgressCallback(new FileOperationService.ProgressCallback() {
-            @Override
-            public void onProgress(int current, int total, String currentItem) {
-                progressDialog.updateProgress(current, total, currentItem);
-            }
-
-            @Override
-            public void onStatusChange(String status) {
-                progressDialog.setStatus(status);
-            }
-        });
-
+        WebViewProgressDialog progressDialog = new WebViewProgressDialog(loc.getString("operation.copying"), mainWindow.isDarkTheme());
         progressDialog.show();
 
-        operationService.executeCopyOperation(
+        OperationHandle handle = operationService.executeCopyOperation(
                 sources,
                 destination,
                 addCopySuffix,
+                createProgressCallback(progressDialog),
                 result -> {
                     Platform.runLater(() -> {
                         progressDialog.close();
-                        operationService.setProgressCallback(null);
                         handleOperationComplete(result);
                         refreshAllPanels();
                     });
                 }
         );
+        progressDialog.setOnCancel(handle::cancel);
+        progressDialog.setOnPause(handle::pause, handle::resume);
     }
 
-    public void executeCopyOperationDirect(List<Path> sources, Path destination) {
-        executeCopyWithProgress(sources, destination, false);
-    }
+    private FileOperationService.ProgressCallback createProgressCallback(WebViewProgressDialog dialog) {
+        return new FileOperationService.ProgressCallback() {
+            @Override
+            public void onProgress(int current, int total, String currentItem) {
+                dialog.updateProgress(current, total, currentItem);
+            }
 
-    public void executeMoveOperationDirect(List<Path> sources, Path destination) {
-        LocalizationManager loc = LocalizationManager.getInstance();
-        FXFilePanel originalActivePanel = mainWindow != null ? mainWindow.getActivePanel() : null;
+            @Override
+            public void onStatusChange(String status) {
+                dialog.setStatus(status);
+            }
 
-        progressDialog = new WebViewProgressDialog(loc.getString("operation.moving"), mainWindow.isDarkTheme());
-        progressDialog.setOnCancel(() -> operationService.cancelCurrentOperation());
+            @Override
+            public void onTransferProgress(TransferProgress progress) {
+                dialog.updateTransferProgress(progress);
+            }
 
-        operationService.setProgressCallback(new FileOperationService.ProgressCallback() {
             @Override
-            public void onProgress(int current, int total, String currentItem) {
-                progressDialog.updateProgress(current, total, currentItem);
+            public void onDiscoveryStateChange(boolean complete) {
+                dialog.setTotalFinal(complete);
             }
 
             @Override
-            public void onStatusChange(String status) {
-                progressDialog.setStatus(status);
+            public void onPauseStateChange(boolean paused) {
+                dialog.setPaused(paused);
             }
-        });
+        };
+    }
 
+    public void executeCopyOperationDirect(List<Path> sources, Path destination) {
+        executeCopyWithProgress(sources, destination, false);
+    }
+
+    public void executeMoveOperationDirect(List<Path> sources, Path destination) {
+        LocalizationManager loc = LocalizationManager.getInstance();
+        FXFilePanel originalActivePanel = mainWindow != null ? mainWindow.getActivePanel() : null;
+
+        WebViewProgressDialog progressDialog = new WebViewProgressDialog(loc.getString("operation.moving"), mainWindow.isDarkTheme());
         progressDialog.show();
 
-        operationService.executeMoveOperation(
+        OperationHandle handle = operationService.executeMoveOperation(
                 sources,
                 destination,
+                createProgressCallback(progressDialog),
                 result -> {
                     Platform.runLater(() -> {
                         progressDialog.close();
-                        operationService.setProgressCallback(null);
                         handleOperationComplete(result);
                         checkAndFixPanelPaths(mainWindow.getLeftPanel());
                         checkAndFixPanelPaths(mainWindow.getRightPanel());
@@ -252,6 +283,8 @@ public class FileController {
                     });
                 }
         );
+        progressDialog.setOnCancel(handle::cancel);
+        progressDialog.setOnPause(handle::pause, handle::resume);
     }
 
     public void executeCopyDirect(List<Path> sources, Path destination, FXFilePanel sourcePanel) {
@@ -262,30 +295,16 @@ public class FileController {
         LocalizationManager loc = LocalizationManager.getInstance();
         FXFilePanel originalActivePanel = mainWindow != null ? mainWindow.getActivePanel() : null;
 
-        progressDialog = new WebViewProgressDialog(loc.getString("operation.moving"), mainWindow.isDarkTheme());
-        progressDialog.setOnCancel(() -> operationService.cancelCurrentOperation());
-
-        operationService.setProgressCallback(new FileOperationService.ProgressCallback() {
-            @Override
-            public void onProgress(int current, int total, String currentItem) {
-                progressDialog.updateProgress(current, total, currentItem);
-            }
-
-            @Override
-            public void onStatusChange(String status) {
-                progressDialog.setStatus(status);
-            }
-        });
-
+        WebViewProgressDialog progressDialog = new WebViewProgressDialog(loc.getString("operation.moving"), mainWindow.isDarkTheme());
         progressDialog.show();
 
-        operationService.executeMoveOperation(
+        OperationHandle handle = operationService.executeMoveOperation(
                 sources,
                 destination,
+                createProgressCallback(progressDialog),
                 result -> {
                     Platform.runLater(() -> {
                         progressDialog.close();
-                        operationService.setProgressCallback(null);
                         handleOperationComplete(result);
                         checkAndFixPanelPaths(mainWindow.getLeftPanel());
                         checkAndFixPanelPaths(mainWindow.getRightPanel());
@@ -297,6 +316,8 @@ public class FileController {
                     });
                 }
         );
+        progressDialog.setOnCancel(handle::cancel);
+        progressDialog.setOnPause(handle::pause, handle::resume);
     }
 
     public void initiateMoveOperation(FXFilePanel sourcePanel) {
@@ -323,6 +344,106 @@ public class FileController {
         executeMoveOperationDirect(sourcePaths, otherPanelPath);
     }
 
+    public void initiateSyncOperation(FXFilePanel sourcePanel) {
+        LocalizationManager loc = LocalizationManager.getInstance();
+        List<FileItem> selectedFiles = sourcePanel.getSelectedFiles();
+
+        if (selectedFiles.isEmpty()) {
+            showWarningDialog(loc.getString("warning.noSelection"));
+            return;
+        }
+
+        Path destination = getDestinationPath(sourcePanel);
+        if (sourcePanel.getCurrentPath().equals(destination)) {
+            showWarningDialog(loc.getString("error.syncSameFolder", sourcePanel.getCurrentPath()));
+            return;
+        }
+
+        ButtonType syncButton = new ButtonType(loc.getString("dialog.syncButton"), ButtonBar.ButtonData.OK_DONE);
+        ButtonType mirrorButton = new ButtonType(loc.getString("dialog.syncMirrorButton"), ButtonBar.ButtonData.OTHER);
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION, "", syncButton, mirrorButton, ButtonType.CANCEL);
+        mainWindow.setIconForDialog(confirmAlert);
+        confirmAlert.setTitle(loc.getString("dialog.syncTitle"));
+        confirmAlert.setHeaderText(null);
+        confirmAlert.setContentText(loc.getString("dialog.syncMessage", selectedFiles.size(), destination));
+
+        Optional<ButtonType> choice = confirmAlert.showAndWait();
+        if (choice.isEmpty() || (choice.get() != syncButton && choice.get() != mirrorButton)) {
+            return;
+        }
+        boolean deleteOrphans = choice.get() == mirrorButton;
+
+        List<Path> sourcePaths = selectedFiles.stream()
+                .map(FileItem::getPath)
+                .collect(Collectors.toList());
+
+        WebViewProgressDialog progressDialog = new WebViewProgressDialog(loc.getString("operation.syncing"), mainWindow.isDarkTheme());
+        progressDialog.show();
+
+        OperationHandle handle = operationService.executeSyncOperation(
+                sourcePaths,
+                destination,
+                deleteOrphans,
+                createProgressCallback(progressDialog),
+                result -> {
+                    Platform.runLater(() -> {
+                        progressDialog.close();
+                        refreshAllPanels();
+                        if (result.isSuccess()) {
+                            showInfoDialog(loc.getString("dialog.syncTitle"), result.getMessage());
+                        } else {
+                            handleOperationComplete(result);
+                        }
+                    });
+                }
+        );
+        progressDialog.setOnCancel(handle::cancel);
+        progressDialog.setOnPause(handle::pause, handle::resume);
+    }
+
+    public void offerTransferResume() {
+        LocalizationManager loc = LocalizationManager.getInstance();
+
+        for (TransferJournalEntry entry : operationService.getUnfinishedTransfers()) {
+            String messageKey = entry.isMove() ? "dialog.resumeMoveMessage" : "dialog.resumeCopyMessage";
+            ButtonType resumeButton = new ButtonType(loc.getString("dialog.resumeButton"), ButtonBar.ButtonData.OK_DONE);
+            ButtonType discardButton = new ButtonType(loc.getString("dialog.discardButton"), ButtonBar.ButtonData.OTHER);
+            Alert resumeAlert = new Alert(Alert.AlertType.CONFIRMATION, "", resumeButton, discardButton, ButtonType.CANCEL);
+            mainWindow.setIconForDialog(resumeAlert);
+            resumeAlert.setTitle(loc.getString("dialog.resumeTitle"));
+            resumeAlert.setHeaderText(null);
+            resumeAlert.setContentText(loc.getString(messageKey, entry.getDestination(), entry.getStartedAt(),
+                    entry.getCompletedCount(), entry.getPlannedCount()));
+
+            Optional<ButtonType> choice = resumeAlert.showAndWait();
+            if (choice.isEmpty() || choice.get() == ButtonType.CANCEL) {
+                continue;
+            }
+            if (choice.get() == discardButton) {
+                operationService.discardUnfinishedTransfer(entry);
+                continue;
+            }
+
+            String title = loc.getString(entry.isMove() ? "operation.moving" : "operation.copying");
+            WebViewProgressDialog progressDialog = new WebViewProgressDialog(title, mainWindow.isDarkTheme());
+            progressDialog.show();
+
+            OperationHandle handle = operationService.executeResumeOperation(
+                    entry,
+                    createProgressCallback(progressDialog),
+                    result -> {
+                        Platform.runLater(() -> {
+                            progressDialog.close();
+                            handleOperationComplete(result);
+                            refreshAllPanels();
+                        });
+                    }
+            );
+            progressDialog.setOnCancel(handle::cancel);
+            progressDialog.setOnPause(handle::pause, handle::resume);
+        }
+    }
+
     public void initiateDeleteOperation(FXFilePanel sourcePanel) {
         LocalizationManager loc = LocalizationManager.getInstance();
         List<FileItem> selectedFiles = sourcePanel.getSelectedFiles();
@@ -349,29 +470,15 @@ public class FileController {
 
         FXFilePanel originalActivePanel = mainWindow.getActivePanel();
 
-        progressDialog = new WebViewProgressDialog(loc.getString("operation.deleting"), mainWindow.isDarkTheme());
-        progressDialog.setOnCancel(() -> operationService.cancelCurrentOperation());
-
-        operationService.setProgressCallback(new FileOperationService.ProgressCallback() {
-            @Override
-            public void onProgress(int current, int total, String currentItem) {
-                progressDialog.updateProgress(current, total, currentItem);
-            }
-
-            @Override
-            public void onStatusChange(String status) {
-                progressDialog.setStatus(status);
-            }
-        });
-
+        WebViewProgressDialog progressDialog = new WebViewProgressDialog(loc.getString("operation.deleting"), mainWindow.isDarkTheme());
         progressDialog.show();
 
-        operationService.executeDeleteOperation(
+        OperationHandle handle = operationService.executeDeleteOperation(
                 pathsToDelete,
+                createProgressCallback(progressDialog),
                 operationResult -> {
                     Platform.runLater(() -> {
                         progressDialog.close();
-                        operationService.setProgressCallback(null);
                         handleOperationComplete(operationResult);
                         checkAndFixPanelPaths(mainWindow.getLeftPanel());
                         checkAndFixPanelPaths(mainWindow.getRightPanel());
@@ -383,9 +490,16 @@ public class FileController {
                     });
                 }
         );
+        progressDialog.setOnCancel(handle::cancel);
+        progressDialog.setOnPause(handle::pause, handle::resume);
     }
 
     private void handleOperationComplete(OperationResult result) {
+        if (result.hasVerificationFailures()) {
+            showVerificationFailures(result);
+            return;
+        }
+
         if (!result.isSuccess()) {
             if (result.getMessage() != null &&
                     (result.getMessage().contains("скасовано") || result.getMessage().contains("cancelled"))) {
@@ -534,28 +648,112 @@ public class FileController {
                 return new ArrayList<>();
             }
 
-            List<FileItem> files = new ArrayList<>();
-            Files.list(path).forEach(filePath -> {
-                try {
-                    FileItem item = FileItem.from(filePath);
-                    if (item != null && (showHiddenFiles || !item.isHidden())) {
-                        files.add(item);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error creating FileItem: " + e.getMessage());
+            List<FileItem> cached = listingCache.get(path);
+            if (cached != null) {
+                return filterHidden(cached);
+            }
+
+            DirectoryListingCache.LoadToken token = listingCache.beginLoad(path);
+            try {
+                List<Path> entries;
+                try (Stream<Path> stream = Files.list(path)) {
+                    entries = stream.collect(Collectors.toList());
                 }
-            });
 
-            files.sort(Comparator.comparing(FileItem::isDirectory).reversed()
-                    .thenComparing(FileItem::getName, String.CASE_INSENSITIVE_ORDER));
+                List<FileItem> files = toSortedItems(path, entries);
+                listingCache.put(token, files);
 
-            return files;
+                return filterHidden(files);
+            } finally {
+                listingCache.abandon(token);
+            }
         } catch (Exception e) {
             System.err.println("Error listing directory: " + e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    public void streamFilesInDirectory(Path path, BooleanSupplier cancelled, Consumer<List<FileItem>> batchConsumer) {
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+
+        List<FileItem> cached = listingCache.get(path);
+        if (cached != null) {
+            batchConsumer.accept(filterHidden(cached));
+            return;
+        }
+
+        DirectoryListingCache.LoadToken token = listingCache.beginLoad(path);
+        try {
+            List<FileItem> loaded = new ArrayList<>();
+            List<Path> pending = new ArrayList<>();
+            int batchLimit = FIRST_BATCH_SIZE;
+            long batchInterval = FIRST_BATCH_NANOS;
+            long batchStart = System.nanoTime();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path entry : stream) {
+                    if (cancelled.getAsBoolean()) {
+                        return;
+                    }
+
+                    pending.add(entry);
+                    if (pending.size() >= batchLimit || System.nanoTime() - batchStart >= batchInterval) {
+                        List<FileItem> batch = toSortedItems(path, pending);
+                        loaded.addAll(batch);
+                        batchConsumer.accept(filterHidden(batch));
+                        pending = new ArrayList<>();
+                        batchLimit = BATCH_SIZE;
+                        batchInterval = BATCH_INTERVAL_NANOS;
+                        batchStart = System.nanoTime();
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                System.err.println("Error listing directory: " + e.getMessage());
+                return;
+            }
+
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            if (!pending.isEmpty()) {
+                List<FileItem> batch = toSortedItems(path, pending);
+                loaded.addAll(batch);
+                batchConsumer.accept(filterHidden(batch));
+            }
+
+            loaded.sort(LISTING_ORDER);
+            listingCache.put(token, loaded);
+        } finally {
+            listingCache.abandon(token);
+        }
+    }
+
+    private List<FileItem> toSortedItems(Path directory, List<Path> paths) {
+        List<FileItem> items = new ArrayList<>(paths.size());
+        for (FileItem item : BlockingIoExecutor.getInstance().mapConcurrently(directory, paths, FileItem::from)) {
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        items.sort(LISTING_ORDER);
+        return items;
+    }
+
+    private List<FileItem> filterHidden(List<FileItem> items) {
+        if (showHiddenFiles) {
+            return new ArrayList<>(items);
+        }
+        List<FileItem> visible = new ArrayList<>(items.size());
+        for (FileItem item : items) {
+            if (!item.isHidden()) {
+                visible.add(item);
+            }
+        }
+        return visible;
+    }
+
     public void openSearchDialog() {
         LocalizationManager loc = LocalizationManager.getInstance();
         boolean isDarkTheme = mainWindow != null && mainWindow.isDarkTheme();
@@ -579,14 +777,20 @@ public class FileController {
             searchProgress.setOnCancel(() -> searchService.cancelCurrentSearch());
             searchProgress.show();
 
-            new Thread(() -> {
-                List<FileItem> results = searchService.search(
-                        searchParams.getRootPath(),
-                        criteria,
-                        (scanned, found, path) -> {
-                            searchProgress.updateSearchProgress(scanned, found, path);
-                        }
-                );
+            ProgressBus.Channel progressChannel = ProgressBus.getInstance().openChannel();
+            BlockingIoExecutor.getInstance().execute(() -> {
+                List<FileItem> results;
+                try {
+                    results = searchService.search(
+                            searchParams.getRootPath(),
+                            criteria,
+                            (scanned, found, path) -> {
+                                progressChannel.publish(() -> searchProgress.updateSearchProgress(scanned, found, path));
+                            }
+                    );
+                } finally {
+                    progressChannel.close();
+                }
 
                 results = filterByItemType(results, searchParams.getItemType());
 
@@ -595,7 +799,7 @@ public class FileController {
                     searchProgress.close();
                     targetPanel.showSearchResults(finalResults, criteria);
                 });
-            }).start();
+            });
         }, isDarkTheme);
 
         mainWindow.setIconForStage(dialog);
@@ -751,32 +955,13 @@ public class FileController {
         LocalizationManager loc = LocalizationManager.getInstance();
         System.out.println("=== UNDO REQUESTED ===");
 
-        progressDialog = new WebViewProgressDialog(loc.getString("operation.undoing"), mainWindow.isDarkTheme());
+        WebViewProgressDialog progressDialog = new WebViewProgressDialog(loc.getString("operation.undoing"), mainWindow.isDarkTheme());
         progressDialog.setStatus(loc.getString("progress.preparing"));
-        progressDialog.setOnCancel(() -> operationService.cancelCurrentOperation());
-
-        operationService.setProgressCallback(new FileOperationService.ProgressCallback() {
-            @Override
-            public void onProgress(int current, int total, String currentItem) {
-                progressDialog.updateProgress(current, total, currentItem);
-            }
-
-            @Override
-            public void onStatusChange(String status) {
-                progressDialog.setStatus(status);
-            }
-        });
-
         progressDialog.show();
 
-        operationService.undoLastOperation((result) -> {
+        OperationHandle handle = operationService.undoLastOperation(createProgressCallback(progressDialog), (result) -> {
             Platform.runLater(() -> {
-                if (progressDialog != null) {
-                    progressDialog.close();
-                    progressDialog = null;
-                }
-
-                operationService.setProgressCallback(null);
+                progressDialog.close();
 
                 if (result.isSuccess()) {
                     System.out.println("=== UNDO SUCCESSFUL ===");
@@ -792,6 +977,8 @@ public class FileController {
                 }
             });
         });
+
+        progressDialog.setOnCancel(handle::cancel);
     }
 
     private void checkAndFixPanelPaths(FXFilePanel panel) {
@@ -884,6 +1071,19 @@ public class FileController {
         alert.showAndWait();
     }
 
+    private void showVerificationFailures(OperationResult result) {
+        StringBuilder message = new StringBuilder(result.getMessage());
+        List<Path> failures = result.getVerificationFailures();
+        int shown = Math.min(failures.size(), 10);
+        for (int i = 0; i < shown; i++) {
+            message.append("\n").append(failures.get(i));
+        }
+        if (failures.size() > shown) {
+            message.append("\n...");
+        }
+        showWarningDialog(message.toString());
+    }
+
     private void showInfoDialog(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         mainWindow.setIconForDialog(alert);
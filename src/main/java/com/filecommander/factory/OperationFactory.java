@@ -1,6 +1,7 @@
 package com.filecommander.factory;
 
 import com.filecommander.command.*;
+import com.filecommander.model.TransferJournalEntry;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -10,12 +11,27 @@ public class OperationFactory {
         return new CopyCommand(sources, destination, addCopySuffix);
     }
 
+    public FileCommand createCopyCommand(List<Path> sources, Path destination, boolean addCopySuffix, boolean verify) {
+        return new CopyCommand(sources, destination, addCopySuffix, verify);
+    }
+
+    public FileCommand createSyncCommand(List<Path> sources, Path destination, boolean deleteOrphans) {
+        return new SyncCommand(sources, destination, deleteOrphans);
+    }
+
     public FileCommand createMoveCommand(List<Path> sources, Path destination) {
         return new MoveCommand(sources, destination);
     }
 
+    public FileCommand createResumeCommand(TransferJournalEntry entry, boolean verify) {
+        if (entry.isMove()) {
+            return new MoveCommand(entry);
+        }
+        return new CopyCommand(entry, verify);
+    }
+
     public FileCommand createDeleteCommand(List<Path> sources) {
-        return new DeleteCommand(sources);
+        return new DeleteCommand(sources, true);
     }
 
     public FileCommand createFolderCommand(Path folderPath) {
@@ -36,6 +36,8 @@ public class LocalizationManager {
         uk.put("toolbar.history", "Історія");
         uk.put("toolbar.showHidden", "Показати приховані");
         uk.put("toolbar.hideHidden", "Приховати приховані");
+        uk.put("toolbar.verifyOn", "Перевірка копій: увімк.");
+        uk.put("toolbar.verifyOff", "Перевірка копій: вимк.");
         uk.put("toolbar.toggleHidden", "Приховані файли");
         uk.put("toolbar.theme", "Тема");
         uk.put("toolbar.language", "Мова");
@@ -61,6 +63,7 @@ public class LocalizationManager {
         uk.put("panel.column.size", "Розмір");
         uk.put("panel.column.modified", "Дата зміни");
         uk.put("panel.status.selected", "Вибрано: {0} | Папок: {1} | Файлів: {2}");
+        uk.put("panel.loading", "Завантаження...");
         uk.put("panel.disk.free", "Вільно: {0} ГБ");
         uk.put("panel.search.results", "Результати пошуку: \"{0}\" ({1} елементів)");
 
@@ -85,6 +88,7 @@ public class LocalizationManager {
         uk.put("context.open", "Відкрити");
         uk.put("context.copy", "Копіювати (F3)");
         uk.put("context.move", "Перемістити (F6)");
+        uk.put("context.syncToOther", "Синхронізувати з іншою панеллю");
         uk.put("context.delete", "Видалити (F8)");
         uk.put("context.newFolder", "Нова папка (F7)");
         uk.put("context.rename", "Перейменувати (F2)");
@@ -115,6 +119,16 @@ public class LocalizationManager {
         uk.put("dialog.error", "Помилка");
         uk.put("dialog.warning", "Попередження");
         uk.put("dialog.info", "Інформація");
+        uk.put("dialog.syncTitle", "Синхронізація");
+        uk.put("dialog.syncMessage", "Синхронізувати {0} елементів до {1}?\nКопіюються лише нові та змінені файли.");
+        uk.put("dialog.syncButton", "Синхронізувати");
+        uk.put("dialog.syncMirrorButton", "Синхронізувати та видалити зайві");
+        uk.put("sync.summary", "Скопійовано: {0}, видалено: {1}, без змін: {2} (заощаджено {3})");
+        uk.put("dialog.resumeTitle", "Незавершена операція");
+        uk.put("dialog.resumeCopyMessage", "Копіювання до {0}, розпочате {1}, було перервано ({2} з {3} файлів завершено). Продовжити з останнього збереженого файлу?");
+        uk.put("dialog.resumeMoveMessage", "Переміщення до {0}, розпочате {1}, було перервано ({2} з {3} елементів завершено). Продовжити з останнього збереженого елемента?");
+        uk.put("dialog.resumeButton", "Продовжити");
+        uk.put("dialog.discardButton", "Відхилити");
 
         uk.put("error.path.title", "Помилка шляху");
         uk.put("error.path.notExists", "Шлях не існує або це не папка");
@@ -134,6 +148,7 @@ public class LocalizationManager {
 
         uk.put("error.fileNotExist", "Файл не існує: {0}");
         uk.put("error.folderSame", "Неможливо скопіювати папку саму в себе: {0}");
+        uk.put("error.syncSameFolder", "Неможливо синхронізувати {0} з самим собою");
         uk.put("error.destNotExist", "Папка призначення не існує: {0}");
         uk.put("error.destNotFolder", "Шлях призначення не є папкою: {0}");
         uk.put("error.noWriteAccess", "Немає прав на запис: {0}");
@@ -150,6 +165,7 @@ public class LocalizationManager {
         uk.put("error.noWriteParent", "Немає прав на запис до батьківської папки");
         uk.put("error.cannotMoveSameFolder", "Неможливо перемістити файли в ту саму папку");
         uk.put("error.cannotDeleteNonEmpty", "Неможливо видалити непорожню папку: {0}");
+        uk.put("error.stagingFailed", "Видалення '{0}' неможливо буде скасувати, тому його не видалено: {1}");
 
         uk.put("warning.noSelection", "Не вибрано файлів");
         uk.put("warning.cannotMoveSameFolder", "Неможливо перемістити файли в ту саму папку");
@@ -157,6 +173,8 @@ public class LocalizationManager {
         uk.put("warning.bufferEmpty", "Буфер обміну порожній");
 
         uk.put("operation.copying", "Копіювання файлів");
+        uk.put("operation.syncing", "Синхронізація файлів");
+        uk.put("operation.queued", "Очікування звільнення диска (операцій попереду: {0})...");
         uk.put("operation.moving", "Переміщення файлів");
         uk.put("operation.deleting", "Видалення файлів");
         uk.put("operation.undoing", "Скасування операції");
@@ -177,6 +195,7 @@ public class LocalizationManager {
         uk.put("operation.description.copy", "Скопіювати {0} елементів до {1}");
         uk.put("operation.description.copyOne", "Створити та скопіювати {0}");
         uk.put("operation.description.move", "Перемістити {0} елементів до {1}");
+        uk.put("operation.description.sync", "Синхронізувати {0} елементів з {1}");
         uk.put("operation.description.delete", "Видалити {0} елементів");
         uk.put("operation.description.rename", "Перейменувати {0} на {1}");
         uk.put("operation.description.createFolder", "Створити папку: {0}");
@@ -204,8 +223,16 @@ public class LocalizationManager {
 
         uk.put("progress.preparing", "Підготовка...");
         uk.put("progress.cancel", "Скасувати");
+        uk.put("progress.pause", "Пауза");
+        uk.put("progress.resume", "Продовжити");
+        uk.put("progress.paused", "Призупинено");
         uk.put("progress.found", "Знайдено");
         uk.put("progress.scanned", "Проскановано");
+        uk.put("progress.speed", "{0}/с");
+        uk.put("progress.remaining", "Залишилось: {0}");
+        uk.put("operation.verifying", "Перевірка контрольних сум...");
+        uk.put("error.verifyMismatch", "Контрольні суми не збіглися для {0} файлів:");
+        uk.put("progress.atLeast", "щонайменше {0}");
 
         uk.put("history.title", "Історія операцій");
         uk.put("history.loading", "Завантаження...");
@@ -258,6 +285,8 @@ public class LocalizationManager {
         en.put("toolbar.history", "History");
         en.put("toolbar.showHidden", "Show Hidden");
         en.put("toolbar.hideHidden", "Hide Hidden");
+        en.put("toolbar.verifyOn", "Verify Copies: On");
+        en.put("toolbar.verifyOff", "Verify Copies: Off");
         en.put("toolbar.toggleHidden", "Toggle Hidden");
         en.put("toolbar.theme", "Theme");
         en.put("toolbar.language", "Language");
@@ -283,6 +312,7 @@ public class LocalizationManager {
         en.put("panel.column.size", "Size");
         en.put("panel.column.modified", "Date Modified");
         en.put("panel.status.selected", "Selected: {0} | Folders: {1} | Files: {2}");
+        en.put("panel.loading", "Loading...");
         en.put("panel.disk.free", "Free: {0} GB");
         en.put("panel.search.results", "Search results: \"{0}\" ({1} items)");
 
@@ -307,6 +337,7 @@ public class LocalizationManager {
         en.put("context.open", "Open");
         en.put("context.copy", "Copy (F3)");
         en.put("context.move", "Move (F6)");
+        en.put("context.syncToOther", "Sync to Other Panel");
         en.put("context.delete", "Delete (F8)");
         en.put("context.newFolder", "New Folder (F7)");
         en.put("context.rename", "Rename (F2)");
@@ -337,6 +368,16 @@ public class LocalizationManager {
         en.put("dialog.error", "Error");
         en.put("dialog.warning", "Warning");
         en.put("dialog.info", "Information");
+        en.put("dialog.syncTitle", "Synchronize");
+        en.put("dialog.syncMessage", "Sync {0} items to {1}?\nOnly new and changed files are copied.");
+        en.put("dialog.syncButton", "Sync");
+        en.put("dialog.syncMirrorButton", "Sync and Delete Extras");
+        en.put("sync.summary", "Copied: {0}, deleted: {1}, unchanged: {2} ({3} saved)");
+        en.put("dialog.resumeTitle", "Unfinished Operation");
+        en.put("dialog.resumeCopyMessage", "A copy to {0} started {1} was interrupted ({2} of {3} files done). Resume from the last saved file?");
+        en.put("dialog.resumeMoveMessage", "A move to {0} started {1} was interrupted ({2} of {3} items done). Resume from the last saved item?");
+        en.put("dialog.resumeButton", "Resume");
+        en.put("dialog.discardButton", "Discard");
 
         en.put("error.path.title", "Path Error");
         en.put("error.path.notExists", "Path does not exist or is not a folder");
@@ -355,6 +396,7 @@ public class LocalizationManager {
 
         en.put("error.fileNotExist", "File does not exist: {0}");
         en.put("error.folderSame", "Cannot copy folder into itself: {0}");
+        en.put("error.syncSameFolder", "Cannot sync {0} onto itself");
         en.put("error.destNotExist", "Destination folder does not exist: {0}");
         en.put("error.destNotFolder", "Destination path is not a folder: {0}");
         en.put("error.noWriteAccess", "No write permission: {0}");
@@ -371,6 +413,7 @@ public class LocalizationManager {
         en.put("error.noWriteParent", "No write permission to parent folder");
         en.put("error.cannotMoveSameFolder", "Cannot move files to the same folder");
         en.put("error.cannotDeleteNonEmpty", "Cannot delete non-empty folder: {0}");
+        en.put("error.stagingFailed", "Deleting '{0}' could not be undone, so it was not deleted: {1}");
 
         en.put("warning.noSelection", "No files selected");
         en.put("warning.cannotMoveSameFolder", "Cannot move files to the same folder");
@@ -380,6 +423,8 @@ public class LocalizationManager {
         en.put("error.accessDeniedDetails", "No permission to access: {0}. Check permissions.");
 
         en.put("operation.copying", "Copying Files");
+        en.put("operation.syncing", "Synchronizing Files");
+        en.put("operation.queued", "Waiting for the disk to become free ({0} operations ahead)...");
         en.put("operation.moving", "Moving Files");
         en.put("operation.deleting", "Deleting Files");
         en.put("operation.undoing", "Undoing Operation");
@@ -400,6 +445,7 @@ public class LocalizationManager {
         en.put("operation.description.copy", "Copy {0} items to {1}");
         en.put("operation.description.copyOne", "Create and copy {0}");
         en.put("operation.description.move", "Move {0} items to {1}");
+        en.put("operation.description.sync", "Sync {0} items to {1}");
         en.put("operation.description.delete", "Delete {0} items");
         en.put("operation.description.rename", "Rename {0} to {1}");
         en.put("operation.description.createFolder", "Create folder: {0}");
@@ -427,8 +473,16 @@ public class LocalizationManager {
 
         en.put("progress.preparing", "Preparing...");
         en.put("progress.cancel", "Cancel");
+        en.put("progress.pause", "Pause");
+        en.put("progress.resume", "Resume");
+        en.put("progress.paused", "Paused");
         en.put("progress.found", "Found");
         en.put("progress.scanned", "Scanned");
+        en.put("progress.speed", "{0}/s");
+        en.put("progress.remaining", "Remaining: {0}");
+        en.put("operation.verifying", "Verifying checksums...");
+        en.put("error.verifyMismatch", "Checksum mismatch in {0} files:");
+        en.put("progress.atLeast", "at least {0}");
 
         en.put("history.title", "Operation History");
         en.put("history.loading", "Loading...");
@@ -99,6 +99,12 @@ public class FileItem implements Comparable<FileItem> {
 
         if (isDirectory) return loc.getString("size.folder");
 
+        return formatSize(size);
+    }
+
+    public static String formatSize(long size) {
+        LocalizationManager loc = LocalizationManager.getInstance();
+
         if (size < 1024) return size + " " + loc.getString("size.bytes");
 
         if (size < 1024 * 1024) {
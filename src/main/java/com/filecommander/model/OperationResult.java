@@ -1,5 +1,7 @@
 package com.filecommander.model;
 
+import com.filecommander.localization.LocalizationManager;
+
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -9,11 +11,24 @@ public class OperationResult {
     private String message;
     private List<Path> affectedPaths;
     private Exception error;
+    private List<Path> verificationFailures = Collections.emptyList();
 
     public static OperationResult success(List<Path> affectedPaths) {
         return new OperationResult(true, "Операцію успішно виконано", affectedPaths, null);
     }
 
+    public static OperationResult success(List<Path> affectedPaths, String message) {
+        return new OperationResult(true, message, affectedPaths, null);
+    }
+
+    public static OperationResult successWithMismatches(List<Path> affectedPaths, List<Path> verificationFailures) {
+        OperationResult result = new OperationResult(true,
+                LocalizationManager.getInstance().getString("error.verifyMismatch", verificationFailures.size()),
+                affectedPaths, null);
+        result.verificationFailures = verificationFailures;
+        return result;
+    }
+
     public static OperationResult error(String message) {
         return new OperationResult(false, message, Collections.emptyList(), null);
     }
@@ -34,4 +49,6 @@ public class OperationResult {
     public String getMessage() { return message; }
     public List<Path> getAffectedPaths() { return affectedPaths; }
     public Exception getError() { return error; }
+    public List<Path> getVerificationFailures() { return verificationFailures; }
+    public boolean hasVerificationFailures() { return !verificationFailures.isEmpty(); }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.filecommander.model;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+public class TransferJournalEntry {
+    public static final String COPY = "COPY";
+    public static final String MOVE = "MOVE";
+
+    private final long id;
+    private final String operationType;
+    private final Path destination;
+    private final String startedAt;
+    private final Map<Path, Path> roots;
+    private final Set<Path> completed;
+    private final int plannedCount;
+
+    public TransferJournalEntry(long id, String operationType, Path destination, String startedAt,
+                                Map<Path, Path> roots, Set<Path> completed, int plannedCount) {
+        this.id = id;
+        this.operationType = operationType;
+        this.destination = destination;
+        this.startedAt = startedAt;
+        this.roots = roots;
+        this.completed = completed;
+        this.plannedCount = plannedCount;
+    }
+
+    public long getId() { return id; }
+    public String getOperationType() { return operationType; }
+    public Path getDestination() { return destination; }
+    public String getStartedAt() { return startedAt; }
+    public Map<Path, Path> getRoots() { return roots; }
+    public int getPlannedCount() { return plannedCount; }
+    public int getCompletedCount() { return completed.size(); }
+
+    public boolean isCompleted(Path source) {
+        return completed.contains(source);
+    }
+
+    public boolean isMove() {
+        return MOVE.equals(operationType);
+    }
+}
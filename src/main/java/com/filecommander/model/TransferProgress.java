@@ -0,0 +1,29 @@
+package com.filecommander.model;
+
+public class TransferProgress {
+    private final long bytesDone;
+    private final long bytesTotal;
+    private final double bytesPerSecond;
+    private final long etaSeconds;
+
+    public TransferProgress(long bytesDone, long bytesTotal, double bytesPerSecond, long etaSeconds) {
+        this.bytesDone = bytesDone;
+        this.bytesTotal = bytesTotal;
+        this.bytesPerSecond = bytesPerSecond;
+        this.etaSeconds = etaSeconds;
+    }
+
+    public int getPercentage() {
+        if (bytesTotal <= 0) return 0;
+        return (int) Math.min(100, (bytesDone * 100) / bytesTotal);
+    }
+
+    public boolean hasEta() {
+        return etaSeconds >= 0;
+    }
+
+    public long getBytesDone() { return bytesDone; }
+    public long getBytesTotal() { return bytesTotal; }
+    public double getBytesPerSecond() { return bytesPerSecond; }
+    public long getEtaSeconds() { return etaSeconds; }
+}
@@ -2,14 +2,57 @@ package com.filecommander.repository;
 
 import java.io.File;
 import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseManager {
     private static DatabaseManager instance;
-    private Connection connection;
     private static final String DB_PATH = System.getProperty("user.home") + File.separator + "FileCommander" + File.separator + "file_commander.db";
+    private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
+    private static final int MAX_CACHED_STATEMENTS = 32;
+    private static final long REAP_INTERVAL_SECONDS = 30;
+
+    public interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private static class Session {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        private void close() {
+            try {
+                for (PreparedStatement stmt : statements.values()) {
+                    stmt.close();
+                }
+                statements.clear();
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close database connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private final ThreadLocal<Session> sessions = new ThreadLocal<>();
+    private final Map<Thread, Session> openSessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "database-session-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed = false;
 
     private DatabaseManager() {
         initializeDatabase();
+        reaper.scheduleWithFixedDelay(this::reapDeadSessions, REAP_INTERVAL_SECONDS, REAP_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     public static synchronized DatabaseManager getInstance() {
@@ -30,17 +73,54 @@ public class DatabaseManager {
                 }
             }
 
-            String url = "jdbc:sqlite:" + DB_PATH;
-            connection = DriverManager.getConnection(url);
+            Connection connection = session().connection;
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
             System.out.println("Database connected at: " + dbFile.getAbsolutePath());
-            createTables();
+            createTables(connection);
         } catch (SQLException e) {
             System.err.println("Failed to initialize database: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    private void createTables() throws SQLException {
+    private Session session() throws SQLException {
+        Session session = sessions.get();
+        if (session != null) {
+            return session;
+        }
+        if (closed) {
+            throw new SQLException("Database is closed");
+        }
+
+        reapDeadSessions();
+
+        Connection connection = DriverManager.getConnection(DB_URL);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA cache_size = -4096");
+        }
+
+        session = new Session(connection);
+        sessions.set(session);
+        openSessions.put(Thread.currentThread(), session);
+        return session;
+    }
+
+    private void reapDeadSessions() {
+        openSessions.entrySet().removeIf(entry -> {
+            if (entry.getKey().isAlive()) {
+                return false;
+            }
+            entry.getValue().close();
+            return true;
+        });
+    }
+
+    private void createTables(Connection connection) throws SQLException {
         String createHistoryTable = """
             CREATE TABLE IF NOT EXISTS operation_history (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -59,9 +139,31 @@ public class DatabaseManager {
             )
             """;
 
+        String createTransferJournalTable = """
+            CREATE TABLE IF NOT EXISTS transfer_journal (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                operation_type VARCHAR(20) NOT NULL,
+                destination TEXT NOT NULL,
+                started_at VARCHAR(20) NOT NULL
+            )
+            """;
+
+        String createTransferJournalItemsTable = """
+            CREATE TABLE IF NOT EXISTS transfer_journal_items (
+                journal_id INTEGER NOT NULL,
+                source TEXT NOT NULL,
+                target TEXT NOT NULL,
+                is_root INTEGER NOT NULL DEFAULT 0,
+                completed INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (journal_id, source, is_root)
+            )
+            """;
+
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(createHistoryTable);
             stmt.execute(createSettingsTable);
+            stmt.execute(createTransferJournalTable);
+            stmt.execute(createTransferJournalItemsTable);
 
             stmt.execute("INSERT OR IGNORE INTO settings (key, value) VALUES ('theme', 'light')");
 
@@ -69,17 +171,51 @@ public class DatabaseManager {
         }
     }
 
-    public Connection getConnection() {
-        return connection;
+    public Connection getConnection() throws SQLException {
+        return session().connection;
     }
 
-    public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+    public PreparedStatement prepare(String sql) throws SQLException {
+        Session session = session();
+        PreparedStatement stmt = session.statements.get(sql);
+        if (stmt != null) {
+            stmt.clearParameters();
+            stmt.clearBatch();
+            return stmt;
+        }
+
+        if (session.statements.size() >= MAX_CACHED_STATEMENTS) {
+            for (PreparedStatement cached : session.statements.values()) {
+                cached.close();
             }
-        } catch (SQLException e) {
-            System.err.println("Failed to close database: " + e.getMessage());
+            session.statements.clear();
+        }
+        stmt = session.connection.prepareStatement(sql);
+        session.statements.put(sql, stmt);
+        return stmt;
+    }
+
+    public <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        Connection connection = session().connection;
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public void close() {
+        closed = true;
+        reaper.shutdownNow();
+        for (Session session : openSessions.values()) {
+            session.close();
         }
+        openSessions.clear();
     }
-}
\ No newline at end of file
+}
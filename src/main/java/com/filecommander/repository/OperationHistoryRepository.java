@@ -8,15 +8,34 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class OperationHistoryRepository {
     private static OperationHistoryRepository instance;
-    private Connection connection;
+    private final DatabaseManager database;
     private static final DateTimeFormatter DATE_FORMAT =
             DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private static final String INSERT_SQL = "INSERT INTO operation_history " +
+            "(operation_type, description, executed_at, status) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "history-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<OperationHistory> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writeQueued = new AtomicBoolean();
+    private volatile boolean closed = false;
 
     private OperationHistoryRepository() {
-        this.connection = DatabaseManager.getInstance().getConnection();
+        this.database = DatabaseManager.getInstance();
     }
 
     public static synchronized OperationHistoryRepository getInstance() {
@@ -27,17 +46,71 @@ public class OperationHistoryRepository {
     }
 
     public void logOperation(FileCommand command) {
-        String sql = "INSERT INTO operation_history " +
-                "(operation_type, description, executed_at, status) " +
-                "VALUES (?, ?, ?, ?)";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            String operationType = formatOperationType(command.getClass().getSimpleName());
-            stmt.setString(1, operationType);
-            stmt.setString(2, command.getDescription());
-            stmt.setString(3, LocalDateTime.now().format(DATE_FORMAT));
-            stmt.setString(4, "SUCCESS");
-            stmt.executeUpdate();
+        if (closed) {
+            return;
+        }
+
+        pending.add(new OperationHistory(
+                0,
+                formatOperationType(command.getClass().getSimpleName()),
+                command.getDescription(),
+                LocalDateTime.now().format(DATE_FORMAT),
+                "SUCCESS"
+        ));
+
+        if (writeQueued.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::writePending);
+            } catch (RejectedExecutionException e) {
+                writeQueued.set(false);
+            }
+        }
+    }
+
+    public void flush() {
+        try {
+            writer.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            System.err.println("Failed to flush history: " + e.getMessage());
+        }
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending() {
+        writeQueued.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            database.inTransaction(connection -> {
+                PreparedStatement stmt = database.prepare(INSERT_SQL);
+                OperationHistory op;
+                while ((op = pending.poll()) != null) {
+                    stmt.setString(1, op.getOperationType());
+                    stmt.setString(2, op.getDescription());
+                    stmt.setString(3, op.getExecutedAt());
+                    stmt.setString(4, op.getStatus());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return null;
+            });
         } catch (SQLException e) {
             System.err.println("Failed to log operation: " + e.getMessage());
         }
@@ -63,19 +136,20 @@ public class OperationHistoryRepository {
         String sql = "SELECT * FROM operation_history " +
                 "ORDER BY id DESC LIMIT ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try {
+            PreparedStatement stmt = database.prepare(sql);
             stmt.setInt(1, limit);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                OperationHistory op = new OperationHistory(
-                        rs.getInt("id"),
-                        rs.getString("operation_type"),
-                        rs.getString("description"),
-                        rs.getString("executed_at"),
-                        rs.getString("status")
-                );
-                history.add(op);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    OperationHistory op = new OperationHistory(
+                            rs.getInt("id"),
+                            rs.getString("operation_type"),
+                            rs.getString("description"),
+                            rs.getString("executed_at"),
+                            rs.getString("status")
+                    );
+                    history.add(op);
+                }
             }
         } catch (SQLException e) {
             System.err.println("Failed to load history: " + e.getMessage());
@@ -85,10 +159,21 @@ public class OperationHistoryRepository {
     }
 
     public void clearHistory() {
+        try {
+            writer.execute(() -> {
+                pending.clear();
+                deleteAll();
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Failed to clear history: " + e.getMessage());
+        }
+    }
+
+    private void deleteAll() {
         String sql = "DELETE FROM operation_history";
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(sql);
+        try {
+            database.prepare(sql).executeUpdate();
         } catch (SQLException e) {
             System.err.println("Failed to clear history: " + e.getMessage());
         }
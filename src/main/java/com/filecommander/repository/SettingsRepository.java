@@ -1,13 +1,33 @@
 package com.filecommander.repository;
 
 import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class SettingsRepository {
+    private static final long WRITE_DELAY_MS = 250;
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO settings (key, value, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
     private static SettingsRepository instance;
-    private Connection connection;
+    private final DatabaseManager database;
+
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+    private final Map<String, String> pendingWrites = new LinkedHashMap<>();
+    private final Map<String, List<SettingsListener>> listeners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "settings-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> scheduledWrite;
+    private volatile boolean closed = false;
+
+    public interface SettingsListener {
+        void onSettingChanged(String key, String value);
+    }
 
     private SettingsRepository() {
-        this.connection = DatabaseManager.getInstance().getConnection();
+        this.database = DatabaseManager.getInstance();
+        loadAll();
     }
 
     public static synchronized SettingsRepository getInstance() {
@@ -17,33 +37,26 @@ public class SettingsRepository {
         return instance;
     }
 
-    public String getTheme() {
-        String sql = "SELECT value FROM settings WHERE key = 'theme'";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            if (rs.next()) {
-                String theme = rs.getString("value");
-                System.out.println("Loaded theme from DB: " + theme);
-                return theme;
+    private void loadAll() {
+        try (ResultSet rs = database.prepare("SELECT key, value FROM settings").executeQuery()) {
+            while (rs.next()) {
+                String value = rs.getString("value");
+                if (value != null) {
+                    cache.put(rs.getString("key"), value);
+                }
             }
+            System.out.println("Loaded " + cache.size() + " settings from DB");
         } catch (SQLException e) {
-            System.err.println("Error loading theme: " + e.getMessage());
+            System.err.println("Error loading settings: " + e.getMessage());
         }
+    }
 
-        return "light";
+    public String getTheme() {
+        return getSetting("theme", "light");
     }
 
     public void saveTheme(String theme) {
-        String sql = "INSERT OR REPLACE INTO settings (key, value, updated_at) VALUES ('theme', ?, CURRENT_TIMESTAMP)";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, theme);
-            stmt.executeUpdate();
-            System.out.println("Theme saved to DB: " + theme);
-        } catch (SQLException e) {
-            System.err.println("Error saving theme: " + e.getMessage());
-        }
+        saveSetting("theme", theme);
     }
 
     public boolean isDarkTheme() {
@@ -51,31 +64,109 @@ public class SettingsRepository {
     }
 
     public String getLanguage() {
-        String sql = "SELECT value FROM settings WHERE key = 'language'";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            if (rs.next()) {
-                String language = rs.getString("value");
-                System.out.println("Loaded language from DB: " + language);
-                return language;
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading language: " + e.getMessage());
+        return getSetting("language", "uk");
+    }
+
+    public void saveLanguage(String language) {
+        saveSetting("language", language);
+    }
+
+    public String getSetting(String key, String defaultValue) {
+        return cache.getOrDefault(key, defaultValue);
+    }
+
+    public long getLongSetting(String key, long defaultValue) {
+        String value = getSetting(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for setting " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public void saveSetting(String key, String value) {
+        String previous = value == null ? cache.remove(key) : cache.put(key, value);
+        if (Objects.equals(previous, value)) {
+            return;
         }
 
-        return "uk";
+        scheduleWrite(key, value);
+        for (SettingsListener listener : listeners.getOrDefault(key, Collections.emptyList())) {
+            listener.onSettingChanged(key, value);
+        }
     }
 
-    public void saveLanguage(String language) {
-        String sql = "INSERT OR REPLACE INTO settings (key, value, updated_at) VALUES ('language', ?, CURRENT_TIMESTAMP)";
+    public void addListener(String key, SettingsListener listener) {
+        listeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void removeListener(String key, SettingsListener listener) {
+        List<SettingsListener> keyListeners = listeners.get(key);
+        if (keyListeners != null) {
+            keyListeners.remove(listener);
+        }
+    }
+
+    private synchronized void scheduleWrite(String key, String value) {
+        if (closed) {
+            return;
+        }
+        pendingWrites.put(key, value);
+        if (scheduledWrite == null) {
+            scheduledWrite = writer.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, language);
-            stmt.executeUpdate();
-            System.out.println("Language saved to DB: " + language);
+    private void writePending() {
+        Map<String, String> batch;
+        synchronized (this) {
+            scheduledWrite = null;
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pendingWrites);
+            pendingWrites.clear();
+        }
+
+        try {
+            database.inTransaction(connection -> {
+                PreparedStatement stmt = database.prepare(UPSERT_SQL);
+                for (Map.Entry<String, String> entry : batch.entrySet()) {
+                    stmt.setString(1, entry.getKey());
+                    stmt.setString(2, entry.getValue());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return null;
+            });
+            System.out.println("Settings saved to DB: " + batch.keySet());
         } catch (SQLException e) {
-            System.err.println("Error saving language: " + e.getMessage());
+            System.err.println("Error saving settings " + batch.keySet() + ": " + e.getMessage());
+        }
+    }
+
+    public void flush() {
+        try {
+            writer.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            System.err.println("Error flushing settings: " + e.getMessage());
+        }
+    }
+
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
         }
+        flush();
+        writer.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+package com.filecommander.repository;
+
+import com.filecommander.model.TransferJournalEntry;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TransferJournalRepository {
+    private static final int BATCH_SIZE = 500;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private static final String PLANNED_SQL = "INSERT OR IGNORE INTO transfer_journal_items " +
+            "(journal_id, source, target, is_root, completed) VALUES (?, ?, ?, 0, 0)";
+    private static final String COMPLETED_SQL = "INSERT INTO transfer_journal_items " +
+            "(journal_id, source, target, is_root, completed) VALUES (?, ?, ?, 0, 1) " +
+            "ON CONFLICT (journal_id, source, is_root) DO UPDATE SET completed = 1";
+
+    private static TransferJournalRepository instance;
+
+    private static class JournalItem {
+        final long journalId;
+        final String source;
+        final String target;
+        final boolean completed;
+
+        JournalItem(long journalId, Path source, Path target, boolean completed) {
+            this.journalId = journalId;
+            this.source = source.toString();
+            this.target = target.toString();
+            this.completed = completed;
+        }
+    }
+
+    private final DatabaseManager database;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "transfer-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<JournalItem> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean closed = false;
+
+    private TransferJournalRepository() {
+        this.database = DatabaseManager.getInstance();
+        writer.scheduleWithFixedDelay(this::writePending, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized TransferJournalRepository getInstance() {
+        if (instance == null) {
+            instance = new TransferJournalRepository();
+        }
+        return instance;
+    }
+
+    public long begin(String operationType, Path destination, Map<Path, Path> roots) {
+        if (closed) {
+            return -1;
+        }
+        return call(() -> insertJournal(operationType, destination, roots), -1L);
+    }
+
+    public void recordPlanned(long journalId, Path source, Path target) {
+        enqueue(new JournalItem(journalId, source, target, false));
+    }
+
+    public void recordCompleted(long journalId, Path source, Path target) {
+        enqueue(new JournalItem(journalId, source, target, true));
+    }
+
+    public void finish(long journalId) {
+        if (journalId < 0 || closed) {
+            return;
+        }
+        call(() -> {
+            writePending();
+            deleteJournal(journalId);
+            return null;
+        }, null);
+    }
+
+    public List<TransferJournalEntry> findUnfinished() {
+        if (closed) {
+            return Collections.emptyList();
+        }
+        return call(this::loadUnfinished, Collections.emptyList());
+    }
+
+    public void flush() {
+        if (closed) {
+            return;
+        }
+        call(() -> {
+            writePending();
+            return null;
+        }, null);
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writer.execute(this::writePending);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(JournalItem item) {
+        if (item.journalId < 0 || closed) {
+            return;
+        }
+
+        pending.add(item);
+        if (pendingCount.incrementAndGet() >= BATCH_SIZE && flushQueued.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::writePending);
+            } catch (RejectedExecutionException e) {
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    private <T> T call(Callable<T> task, T fallback) {
+        try {
+            return writer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        } catch (ExecutionException e) {
+            System.err.println("Transfer journal failed: " + e.getCause().getMessage());
+            return fallback;
+        } catch (RejectedExecutionException e) {
+            return fallback;
+        }
+    }
+
+    private long insertJournal(String operationType, Path destination, Map<Path, Path> roots) throws SQLException {
+        String journalSql = "INSERT INTO transfer_journal (operation_type, destination, started_at) VALUES (?, ?, ?)";
+        String rootSql = "INSERT OR IGNORE INTO transfer_journal_items " +
+                "(journal_id, source, target, is_root, completed) VALUES (?, ?, ?, 1, 0)";
+
+        return database.inTransaction(connection -> {
+            PreparedStatement journalStmt = database.prepare(journalSql);
+            journalStmt.setString(1, operationType);
+            journalStmt.setString(2, destination.toString());
+            journalStmt.setString(3, LocalDateTime.now().format(DATE_FORMAT));
+            journalStmt.executeUpdate();
+
+            long journalId;
+            try (ResultSet keys = database.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                if (!keys.next()) {
+                    throw new SQLException("No journal id generated");
+                }
+                journalId = keys.getLong(1);
+            }
+
+            PreparedStatement rootStmt = database.prepare(rootSql);
+            for (Map.Entry<Path, Path> root : roots.entrySet()) {
+                rootStmt.setLong(1, journalId);
+                rootStmt.setString(2, root.getKey().toString());
+                rootStmt.setString(3, root.getValue().toString());
+                rootStmt.addBatch();
+            }
+            rootStmt.executeBatch();
+            return journalId;
+        });
+    }
+
+    private void writePending() {
+        flushQueued.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            database.inTransaction(connection -> {
+                PreparedStatement plannedStmt = database.prepare(PLANNED_SQL);
+                PreparedStatement completedStmt = database.prepare(COMPLETED_SQL);
+                JournalItem item;
+                while ((item = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    PreparedStatement stmt = item.completed ? completedStmt : plannedStmt;
+                    stmt.setLong(1, item.journalId);
+                    stmt.setString(2, item.source);
+                    stmt.setString(3, item.target);
+                    stmt.addBatch();
+                }
+                plannedStmt.executeBatch();
+                completedStmt.executeBatch();
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Failed to write transfer journal: " + e.getMessage());
+        }
+    }
+
+    private void deleteJournal(long journalId) throws SQLException {
+        database.inTransaction(connection -> {
+            PreparedStatement items = database.prepare("DELETE FROM transfer_journal_items WHERE journal_id = ?");
+            items.setLong(1, journalId);
+            items.executeUpdate();
+            PreparedStatement journal = database.prepare("DELETE FROM transfer_journal WHERE id = ?");
+            journal.setLong(1, journalId);
+            journal.executeUpdate();
+            return null;
+        });
+    }
+
+    private List<TransferJournalEntry> loadUnfinished() throws SQLException {
+        writePending();
+
+        List<TransferJournalEntry> entries = new ArrayList<>();
+        String itemsSql = "SELECT source, target, is_root, completed FROM transfer_journal_items " +
+                "WHERE journal_id = ? ORDER BY rowid";
+
+        PreparedStatement itemsStmt = database.prepare(itemsSql);
+        try (ResultSet rs = database.prepare("SELECT * FROM transfer_journal ORDER BY id").executeQuery()) {
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                String operationType = rs.getString("operation_type");
+                Map<Path, Path> roots = new LinkedHashMap<>();
+                Set<Path> completed = new HashSet<>();
+                int fileCount = 0;
+
+                itemsStmt.setLong(1, id);
+                try (ResultSet items = itemsStmt.executeQuery()) {
+                    while (items.next()) {
+                        Path source = Paths.get(items.getString("source"));
+                        if (items.getInt("is_root") == 1) {
+                            roots.put(source, Paths.get(items.getString("target")));
+                            continue;
+                        }
+                        fileCount++;
+                        if (items.getInt("completed") == 1) {
+                            completed.add(source);
+                        }
+                    }
+                }
+
+                entries.add(new TransferJournalEntry(id, operationType, Paths.get(rs.getString("destination")),
+                        rs.getString("started_at"), roots, completed, fileCount));
+            }
+        }
+        return entries;
+    }
+}
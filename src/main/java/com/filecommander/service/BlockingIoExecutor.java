@@ -0,0 +1,135 @@
+package com.filecommander.service;
+
+import com.filecommander.repository.SettingsRepository;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class BlockingIoExecutor {
+    public static final String VIRTUAL_THREADS_KEY = "io.virtualThreads";
+    public static final String MAX_PER_DEVICE_KEY = "io.maxConcurrentPerDevice";
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final int CHUNK_SIZE = 16;
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+    private static BlockingIoExecutor instance;
+
+    private final boolean virtualThreads;
+    private final int maxPerDevice;
+    private final ExecutorService executor;
+    private final Map<FileStore, Semaphore> deviceLimits = new ConcurrentHashMap<>();
+    private final Semaphore unknownDeviceLimit;
+
+    private BlockingIoExecutor() {
+        SettingsRepository settings = SettingsRepository.getInstance();
+        virtualThreads = Boolean.parseBoolean(settings.getSetting(VIRTUAL_THREADS_KEY, "true"));
+        maxPerDevice = (int) Math.max(1, settings.getLongSetting(MAX_PER_DEVICE_KEY, 64));
+        unknownDeviceLimit = new Semaphore(maxPerDevice);
+
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fs-io-", 0).factory());
+        } else {
+            executor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "fs-io-" + WORKER_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static synchronized BlockingIoExecutor getInstance() {
+        if (instance == null) {
+            instance = new BlockingIoExecutor();
+        }
+        return instance;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    public <T, R> List<R> mapConcurrently(Path device, List<T> inputs, Function<T, R> mapper) {
+        List<R> results = new ArrayList<>(inputs.size());
+        if (!virtualThreads || inputs.size() < PARALLEL_THRESHOLD) {
+            for (T input : inputs) {
+                results.add(mapper.apply(input));
+            }
+            return results;
+        }
+
+        Semaphore limit = limitFor(device);
+        List<List<T>> chunks = new ArrayList<>();
+        List<Future<List<R>>> futures = new ArrayList<>();
+        for (int start = 0; start < inputs.size(); start += CHUNK_SIZE) {
+            List<T> chunk = inputs.subList(start, Math.min(start + CHUNK_SIZE, inputs.size()));
+            chunks.add(chunk);
+            futures.add(executor.submit(() -> {
+                limit.acquire();
+                try {
+                    List<R> mapped = new ArrayList<>(chunk.size());
+                    for (T input : chunk) {
+                        mapped.add(mapper.apply(input));
+                    }
+                    return mapped;
+                } finally {
+                    limit.release();
+                }
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.addAll(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<List<R>> pending : futures) {
+                    pending.cancel(true);
+                }
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("Background I/O failed, retrying chunk serially: " + e.getCause().getMessage());
+                for (T input : chunks.get(i)) {
+                    results.add(mapper.apply(input));
+                }
+            }
+        }
+        return results;
+    }
+
+    private Semaphore limitFor(Path path) {
+        Path existing = path.toAbsolutePath();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if (existing == null) {
+            return unknownDeviceLimit;
+        }
+
+        try {
+            FileStore store = Files.getFileStore(existing);
+            return deviceLimits.computeIfAbsent(store, key -> new Semaphore(maxPerDevice));
+        } catch (IOException e) {
+            return unknownDeviceLimit;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,240 @@
+package com.filecommander.service;
+
+import com.filecommander.model.FileItem;
+import com.filecommander.repository.SettingsRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DirectoryListingCache {
+    public static final String MAX_MEMORY_KEY = "listing.cacheMaxMb";
+    private static final long ITEM_OVERHEAD_BYTES = 240;
+    private static final int MAX_PENDING_LOADS = 256;
+    private static DirectoryListingCache instance;
+
+    public static class LoadToken {
+        private final Path directory;
+        private final long sequence;
+        private final FileTime modified;
+
+        private LoadToken(Path directory, long sequence, FileTime modified) {
+            this.directory = directory;
+            this.sequence = sequence;
+            this.modified = modified;
+        }
+    }
+
+    private static class Snapshot {
+        final List<FileItem> items;
+        final FileTime modified;
+        final long bytes;
+
+        Snapshot(List<FileItem> items, FileTime modified, long bytes) {
+            this.items = items;
+            this.modified = modified;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Path, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, Long> pendingLoads = new HashMap<>();
+    private final DirectoryWatcher watcher;
+    private final DirectoryWatcher.Listener invalidator = changes -> invalidate(changes.getDirectory());
+    private long sequence = 0;
+    private long usedBytes = 0;
+    private volatile boolean closed = false;
+
+    private DirectoryListingCache() {
+        maxBytes = Math.max(1, SettingsRepository.getInstance().getLongSetting(MAX_MEMORY_KEY, 64)) * 1024 * 1024;
+        watcher = DirectoryWatcher.getInstance();
+        if (!watcher.isAvailable()) {
+            System.err.println("Directory watching unavailable, listing cache disabled");
+        }
+    }
+
+    public static synchronized DirectoryListingCache getInstance() {
+        if (instance == null) {
+            instance = new DirectoryListingCache();
+        }
+        return instance;
+    }
+
+    public List<FileItem> get(Path directory) {
+        Path key = keyFor(directory);
+        Snapshot snapshot;
+        synchronized (this) {
+            snapshot = snapshots.get(key);
+        }
+        if (snapshot == null) {
+            return null;
+        }
+
+        if (!snapshot.modified.equals(lastModified(key))) {
+            invalidate(key);
+            return null;
+        }
+        return snapshot.items;
+    }
+
+    public LoadToken beginLoad(Path directory) {
+        if (!watcher.isAvailable() || closed) {
+            return null;
+        }
+
+        Path key = keyFor(directory);
+        FileTime modified = lastModified(key);
+        if (modified == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (!watcher.watch(key, invalidator)) {
+                return null;
+            }
+
+            if (pendingLoads.size() >= MAX_PENDING_LOADS) {
+                pendingLoads.clear();
+            }
+            long loadSequence = ++sequence;
+            pendingLoads.put(key, loadSequence);
+            return new LoadToken(key, loadSequence, modified);
+        }
+    }
+
+    public void put(LoadToken token, List<FileItem> items) {
+        if (token == null) {
+            return;
+        }
+
+        long bytes = estimateBytes(items);
+        boolean unchanged = token.modified.equals(lastModified(token.directory));
+
+        synchronized (this) {
+            Long pending = pendingLoads.get(token.directory);
+            if (pending == null || pending != token.sequence) {
+                return;
+            }
+            pendingLoads.remove(token.directory);
+
+            if (!unchanged || bytes > maxBytes / 2 || closed) {
+                unwatchIfIdle(token.directory);
+                return;
+            }
+
+            Snapshot previous = snapshots.put(token.directory,
+                    new Snapshot(Collections.unmodifiableList(new ArrayList<>(items)), token.modified, bytes));
+            if (previous != null) {
+                usedBytes -= previous.bytes;
+            }
+            usedBytes += bytes;
+            evictOverflow();
+        }
+    }
+
+    public void abandon(LoadToken token) {
+        if (token == null) {
+            return;
+        }
+
+        synchronized (this) {
+            Long pending = pendingLoads.get(token.directory);
+            if (pending != null && pending == token.sequence) {
+                pendingLoads.remove(token.directory);
+                unwatchIfIdle(token.directory);
+            }
+        }
+    }
+
+    public void invalidate(Path directory) {
+        Path key = keyFor(directory);
+        synchronized (this) {
+            remove(key);
+        }
+    }
+
+    public void invalidateTree(Path root) {
+        Path key = keyFor(root);
+        synchronized (this) {
+            List<Path> stale = new ArrayList<>();
+            for (Path directory : snapshots.keySet()) {
+                if (directory.startsWith(key)) {
+                    stale.add(directory);
+                }
+            }
+            for (Path directory : pendingLoads.keySet()) {
+                if (directory.startsWith(key)) {
+                    stale.add(directory);
+                }
+            }
+            for (Path directory : stale) {
+                remove(directory);
+            }
+        }
+    }
+
+    public synchronized void close() {
+        closed = true;
+        for (Path directory : snapshots.keySet()) {
+            watcher.unwatch(directory, invalidator);
+        }
+        snapshots.clear();
+        pendingLoads.clear();
+        usedBytes = 0;
+    }
+
+    private void remove(Path key) {
+        pendingLoads.remove(key);
+        Snapshot removed = snapshots.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.bytes;
+        }
+        unwatchIfIdle(key);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Path, Snapshot>> iterator = snapshots.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Snapshot> eldest = iterator.next();
+            iterator.remove();
+            usedBytes -= eldest.getValue().bytes;
+            unwatchIfIdle(eldest.getKey());
+        }
+    }
+
+    private void unwatchIfIdle(Path directory) {
+        if (snapshots.containsKey(directory) || pendingLoads.containsKey(directory)) {
+            return;
+        }
+        watcher.unwatch(directory, invalidator);
+    }
+
+    private long estimateBytes(List<FileItem> items) {
+        long bytes = 0;
+        for (FileItem item : items) {
+            bytes += ITEM_OVERHEAD_BYTES + 4L * item.getName().length();
+        }
+        return bytes;
+    }
+
+    private Path keyFor(Path directory) {
+        return directory.toAbsolutePath().normalize();
+    }
+
+    private FileTime lastModified(Path directory) {
+        try {
+            return Files.getLastModifiedTime(directory);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.filecommander.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class DirectoryWatcher {
+    private static final long QUIET_PERIOD_MS = 150;
+    private static final long MAX_DELAY_MS = 1000;
+    private static DirectoryWatcher instance;
+
+    public interface Listener {
+        void onDirectoryChanged(DirectoryChanges changes);
+    }
+
+    public static class DirectoryChanges {
+        private final Path directory;
+        private final Set<Path> changedPaths;
+        private final boolean overflow;
+
+        private DirectoryChanges(Path directory, Set<Path> changedPaths, boolean overflow) {
+            this.directory = directory;
+            this.changedPaths = Collections.unmodifiableSet(changedPaths);
+            this.overflow = overflow;
+        }
+
+        public Path getDirectory() { return directory; }
+        public Set<Path> getChangedPaths() { return changedPaths; }
+        public boolean isOverflow() { return overflow; }
+    }
+
+    private static class PendingChanges {
+        final Set<Path> changedPaths = new LinkedHashSet<>();
+        final long firstEventAt = System.currentTimeMillis();
+        boolean overflow;
+        ScheduledFuture<?> delivery;
+    }
+
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final Map<Path, List<Listener>> listeners = new HashMap<>();
+    private final Map<Path, PendingChanges> pending = new HashMap<>();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "directory-watcher-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed = false;
+
+    private DirectoryWatcher() {
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Directory watching unavailable: " + e.getMessage());
+        }
+        watchService = service;
+
+        if (watchService != null) {
+            Thread watcher = new Thread(this::watchLoop, "directory-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    public static synchronized DirectoryWatcher getInstance() {
+        if (instance == null) {
+            instance = new DirectoryWatcher();
+        }
+        return instance;
+    }
+
+    public boolean isAvailable() {
+        return watchService != null && !closed;
+    }
+
+    public synchronized boolean watch(Path directory, Listener listener) {
+        if (!isAvailable()) {
+            return false;
+        }
+
+        Path key = keyFor(directory);
+        if (!watchKeys.containsKey(key)) {
+            try {
+                WatchKey watchKey = key.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                watchKeys.put(key, watchKey);
+                watchedDirectories.put(watchKey, key);
+            } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+                return false;
+            }
+        }
+
+        List<Listener> directoryListeners = listeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>());
+        if (!directoryListeners.contains(listener)) {
+            directoryListeners.add(listener);
+        }
+        return true;
+    }
+
+    public synchronized void unwatch(Path directory, Listener listener) {
+        Path key = keyFor(directory);
+        List<Listener> directoryListeners = listeners.get(key);
+        if (directoryListeners == null) {
+            return;
+        }
+
+        directoryListeners.remove(listener);
+        if (!directoryListeners.isEmpty()) {
+            return;
+        }
+
+        listeners.remove(key);
+        PendingChanges changes = pending.remove(key);
+        if (changes != null && changes.delivery != null) {
+            changes.delivery.cancel(false);
+        }
+        WatchKey watchKey = watchKeys.remove(key);
+        if (watchKey != null) {
+            watchedDirectories.remove(watchKey);
+            watchKey.cancel();
+        }
+    }
+
+    public void close() {
+        closed = true;
+        dispatcher.shutdownNow();
+        synchronized (this) {
+            watchKeys.clear();
+            watchedDirectories.clear();
+            listeners.clear();
+            pending.clear();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Error closing directory watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    private void watchLoop() {
+        while (!closed) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = watchedDirectories.get(watchKey);
+            List<WatchEvent<?>> events = watchKey.pollEvents();
+            if (directory != null) {
+                record(directory, events);
+            }
+            if (!watchKey.reset()) {
+                watchedDirectories.remove(watchKey);
+            }
+        }
+    }
+
+    private synchronized void record(Path directory, List<WatchEvent<?>> events) {
+        if (!listeners.containsKey(directory)) {
+            return;
+        }
+
+        PendingChanges changes = pending.computeIfAbsent(directory, key -> new PendingChanges());
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changes.overflow = true;
+            } else if (event.context() instanceof Path name) {
+                changes.changedPaths.add(directory.resolve(name));
+            }
+        }
+
+        if (changes.delivery != null) {
+            changes.delivery.cancel(false);
+        }
+        long delay = Math.min(QUIET_PERIOD_MS, changes.firstEventAt + MAX_DELAY_MS - System.currentTimeMillis());
+        try {
+            changes.delivery = dispatcher.schedule(() -> deliver(directory), Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            pending.remove(directory);
+        }
+    }
+
+    private void deliver(Path directory) {
+        PendingChanges changes;
+        List<Listener> directoryListeners;
+        synchronized (this) {
+            changes = pending.remove(directory);
+            directoryListeners = listeners.get(directory);
+        }
+        if (changes == null || directoryListeners == null) {
+            return;
+        }
+
+        DirectoryChanges delivered = new DirectoryChanges(directory, changes.changedPaths, changes.overflow);
+        for (Listener listener : directoryListeners) {
+            try {
+                listener.onDirectoryChanged(delivered);
+            } catch (RuntimeException e) {
+                System.err.println("Directory change listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private Path keyFor(Path directory) {
+        return directory.toAbsolutePath().normalize();
+    }
+}
@@ -2,34 +2,48 @@ package com.filecommander.service;
 
 import com.filecommander.command.CreateFolderCommand;
 import com.filecommander.command.FileCommand;
+import com.filecommander.command.StagedUndo;
 import com.filecommander.factory.OperationFactory;
+import com.filecommander.localization.LocalizationManager;
 import com.filecommander.model.FileItem;
 import com.filecommander.model.OperationResult;
+import com.filecommander.model.TransferJournalEntry;
+import com.filecommander.model.TransferProgress;
+import com.filecommander.repository.SettingsRepository;
+import com.filecommander.repository.TransferJournalRepository;
 import javafx.application.Platform;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class FileOperationService {
+    public static final String VERIFY_COPIES_KEY = "copy.verifyChecksums";
+    public static final String DELTA_TRANSFER_KEY = "copy.deltaTransfer";
+    public static final String MAX_PER_DEVICE_KEY = "scheduler.maxPerDevice";
+    private static final int MAX_HISTORY_SIZE = 50;
     private static FileOperationService instance;
     private Stack<FileCommand> commandHistory = new Stack<>();
     private OperationFactory operationFactory = new OperationFactory();
-    private ExecutorService executorService = Executors.newFixedThreadPool(4);
-    private ProgressCallback progressCallback;
-    private volatile boolean cancelled = false;
+    private OperationScheduler scheduler;
+    private final Set<OperationHandle> activeOperations = ConcurrentHashMap.newKeySet();
 
     public interface ProgressCallback {
         void onProgress(int current, int total, String currentItem);
         void onStatusChange(String status);
+        default void onTransferProgress(TransferProgress progress) {}
+        default void onDiscoveryStateChange(boolean complete) {}
+        default void onPauseStateChange(boolean paused) {}
     }
 
-    private FileOperationService() {}
+    private FileOperationService() {
+        int maxPerDevice = (int) SettingsRepository.getInstance().getLongSetting(MAX_PER_DEVICE_KEY, 1);
+        scheduler = new OperationScheduler(maxPerDevice);
+    }
 
     public static synchronized FileOperationService getInstance() {
         if (instance == null) {
@@ -38,91 +52,213 @@ public class FileOperationService {
         return instance;
     }
 
-    public void setProgressCallback(ProgressCallback callback) {
-        this.progressCallback = callback;
+    public boolean isVerifyCopiesEnabled() {
+        return Boolean.parseBoolean(SettingsRepository.getInstance().getSetting(VERIFY_COPIES_KEY, "false"));
+    }
+
+    public void setVerifyCopiesEnabled(boolean enabled) {
+        SettingsRepository.getInstance().saveSetting(VERIFY_COPIES_KEY, String.valueOf(enabled));
+    }
+
+    public boolean isDeltaTransferEnabled() {
+        return Boolean.parseBoolean(SettingsRepository.getInstance().getSetting(DELTA_TRANSFER_KEY, "true"));
     }
 
-    public void cancelCurrentOperation() {
-        this.cancelled = true;
+    public OperationHandle executeCopyOperation(List<Path> sources, Path destination,
+                                                boolean addCopySuffix,
+                                                ProgressCallback progress,
+                                                Consumer<OperationResult> callback) {
+        FileCommand command = operationFactory.createCopyCommand(sources, destination, addCopySuffix, isVerifyCopiesEnabled());
+        return executeCommandAsync(command, progress, callback, true);
     }
 
-    public void executeCopyOperation(List<Path> sources, Path destination,
-                                     boolean addCopySuffix,
-                                     Consumer<OperationResult> callback) {
-        cancelled = false;
-        FileCommand command = operationFactory.createCopyCommand(sources, destination, addCopySuffix);
-        executeCommandAsync(command, callback);
+    public OperationHandle executeSyncOperation(List<Path> sources, Path destination,
+                                                boolean deleteOrphans,
+                                                ProgressCallback progress,
+                                                Consumer<OperationResult> callback) {
+        FileCommand command = operationFactory.createSyncCommand(sources, destination, deleteOrphans);
+        return executeCommandAsync(command, progress, callback, true);
     }
 
-    public void executeMoveOperation(List<Path> sources, Path destination,
-                                     Consumer<OperationResult> callback) {
-        cancelled = false;
+    public OperationHandle executeMoveOperation(List<Path> sources, Path destination,
+                                                ProgressCallback progress,
+                                                Consumer<OperationResult> callback) {
         FileCommand command = operationFactory.createMoveCommand(sources, destination);
-        executeCommandAsync(command, callback);
+        return executeCommandAsync(command, progress, callback, true);
     }
 
-    public void executeDeleteOperation(List<Path> sources,
-                                       Consumer<OperationResult> callback) {
-        cancelled = false;
+    public OperationHandle executeResumeOperation(TransferJournalEntry entry,
+                                                  ProgressCallback progress,
+                                                  Consumer<OperationResult> callback) {
+        FileCommand command = operationFactory.createResumeCommand(entry, isVerifyCopiesEnabled());
+        return executeCommandAsync(command, progress, callback, true);
+    }
+
+    public List<TransferJournalEntry> getUnfinishedTransfers() {
+        return TransferJournalRepository.getInstance().findUnfinished();
+    }
+
+    public void discardUnfinishedTransfer(TransferJournalEntry entry) {
+        TransferJournalRepository.getInstance().finish(entry.getId());
+    }
+
+    public OperationHandle executeDeleteOperation(List<Path> sources,
+                                                  ProgressCallback progress,
+                                                  Consumer<OperationResult> callback) {
         FileCommand command = operationFactory.createDeleteCommand(sources);
-        executeCommandAsync(command, callback);
+        return executeCommandAsync(command, progress, callback, true);
     }
 
     public void executeCreateFolderOperation(Path folderPath,
                                              Consumer<OperationResult> callback) {
         FileCommand command = operationFactory.createFolderCommand(folderPath);
-        executeCommandAsync(command, callback);
+        executeCommandAsync(command, null, callback, false);
     }
 
     public void executeRenameOperation(Path oldPath, Path newPath,
                                        Consumer<OperationResult> callback) {
         FileCommand command = operationFactory.createRenameCommand(oldPath, newPath);
-        executeCommandAsync(command, callback);
+        executeCommandAsync(command, null, callback, false);
     }
 
-    private void executeCommandAsync(FileCommand command,
-                                     Consumer<OperationResult> callback) {
-        executorService.submit(() -> {
+    private OperationHandle executeCommandAsync(FileCommand command,
+                                                ProgressCallback progress,
+                                                Consumer<OperationResult> callback,
+                                                boolean deviceBound) {
+        OperationHandle handle = new OperationHandle(progress);
+        command.setHandle(handle);
+        activeOperations.add(handle);
+
+        List<Path> paths = deviceBound ? command.getAffectedPaths() : Collections.emptyList();
+        submitToScheduler(command.getDescription(), paths, handle, () -> {
+            OperationResult result;
             try {
-                OperationResult result = command.execute();
+                result = command.execute();
 
-                if (result.isSuccess()) {
-                    commandHistory.push(command);
+                if (result.isSuccess() || hasStagedData(command)) {
+                    pushToHistory(command);
+                } else {
+                    command.discard();
                 }
-
-                Platform.runLater(() -> callback.accept(result));
-
             } catch (Exception e) {
                 e.printStackTrace();
-                OperationResult errorResult = OperationResult.error(e);
-                Platform.runLater(() -> callback.accept(errorResult));
+                result = OperationResult.error(e);
             }
+
+            invalidateListings(command.getAffectedPaths());
+            activeOperations.remove(handle);
+            handle.complete(result);
+            OperationResult finalResult = result;
+            Platform.runLater(() -> callback.accept(finalResult));
         });
+        return handle;
+    }
+
+    private boolean hasStagedData(FileCommand command) {
+        return command instanceof StagedUndo && !((StagedUndo) command).getStagedPaths().isEmpty();
+    }
+
+    private void invalidateListings(List<Path> paths) {
+        DirectoryListingCache cache = DirectoryListingCache.getInstance();
+        for (Path path : paths) {
+            cache.invalidateTree(path);
+            if (path.toAbsolutePath().getParent() != null) {
+                cache.invalidate(path.toAbsolutePath().getParent());
+            }
+        }
+    }
+
+    private synchronized void pushToHistory(FileCommand command) {
+        commandHistory.push(command);
+        while (commandHistory.size() > MAX_HISTORY_SIZE) {
+            FileCommand evicted = commandHistory.remove(0);
+            evicted.discard();
+        }
+    }
+
+    public synchronized List<FileCommand> getHistorySnapshot() {
+        return new ArrayList<>(commandHistory);
+    }
+
+    public synchronized void discardFromHistory(Collection<FileCommand> commands) {
+        for (FileCommand command : commands) {
+            if (commandHistory.remove(command)) {
+                System.out.println("Discarded from undo history: " + command.getDescription());
+                command.discard();
+            }
+        }
     }
 
-    public void undoLastOperation(Consumer<OperationResult> callback) {
-        if (commandHistory.isEmpty()) {
-            Platform.runLater(() ->
-                    callback.accept(OperationResult.error("Немає операцій для скасування")));
-            return;
+    public OperationHandle undoLastOperation(ProgressCallback progress, Consumer<OperationResult> callback) {
+        OperationHandle handle = new OperationHandle(progress);
+        FileCommand lastCommand;
+        synchronized (this) {
+            lastCommand = commandHistory.isEmpty() ? null : commandHistory.pop();
+        }
+
+        if (lastCommand == null) {
+            OperationResult result = OperationResult.error("Немає операцій для скасування");
+            handle.complete(result);
+            Platform.runLater(() -> callback.accept(result));
+            return handle;
         }
 
-        FileCommand lastCommand = commandHistory.pop();
+        lastCommand.setHandle(handle);
+        activeOperations.add(handle);
 
-        executorService.submit(() -> {
+        submitToScheduler(lastCommand.getDescription(), lastCommand.getAffectedPaths(), handle, () -> {
+            OperationResult result;
             try {
                 lastCommand.undo();
-                OperationResult result = OperationResult.success(lastCommand.getAffectedPaths());
-                Platform.runLater(() -> callback.accept(result));
+                result = OperationResult.success(lastCommand.getAffectedPaths());
             } catch (IOException e) {
                 e.printStackTrace();
-                OperationResult result = OperationResult.error(e);
-                Platform.runLater(() -> callback.accept(result));
+                result = OperationResult.error(e);
             }
+
+            invalidateListings(lastCommand.getAffectedPaths());
+            activeOperations.remove(handle);
+            handle.complete(result);
+            OperationResult finalResult = result;
+            Platform.runLater(() -> callback.accept(finalResult));
         });
+        return handle;
     }
 
-    public void updateLastOperationPath(Path oldPath, Path newPath) {
+    private void submitToScheduler(String description, List<Path> paths, OperationHandle handle, Runnable task) {
+        scheduler.submit(description, paths, task, job -> {
+            handle.setPauseListener(new OperationHandle.PauseListener() {
+                @Override
+                public void onPause() {
+                    scheduler.suspend(job);
+                }
+
+                @Override
+                public void onResume() throws InterruptedException {
+                    scheduler.reacquire(job);
+                }
+            });
+            if (job.getState() == OperationScheduler.State.QUEUED) {
+                handle.notifyStatus(LocalizationManager.getInstance().getString("operation.queued", scheduler.getJobsAhead(job)));
+            }
+        });
+    }
+
+    public List<OperationScheduler.Job> getQueuedOperations() {
+        return scheduler.getQueuedJobs();
+    }
+
+    public List<OperationScheduler.Job> getRunningOperations() {
+        return scheduler.getRunningJobs();
+    }
+
+    public void cancelAllOperations() {
+        for (OperationHandle handle : activeOperations) {
+            handle.cancel();
+        }
+    }
+
+    public synchronized void updateLastOperationPath(Path oldPath, Path newPath) {
         if (!commandHistory.isEmpty()) {
             FileCommand lastCommand = commandHistory.peek();
             if (lastCommand instanceof CreateFolderCommand) {
@@ -153,23 +289,14 @@ public class FileOperationService {
         }
     }
 
-    public void notifyProgress(int current, int total, String currentItem) {
-        if (progressCallback != null && !cancelled) {
-            Platform.runLater(() -> progressCallback.onProgress(current, total, currentItem));
-        }
-    }
-
-    public void notifyStatus(String status) {
-        if (progressCallback != null) {
-            Platform.runLater(() -> progressCallback.onStatusChange(status));
-        }
-    }
-
-    public boolean isCancelled() {
-        return cancelled;
-    }
-
     public void shutdown() {
-        executorService.shutdown();
+        cancelAllOperations();
+        scheduler.shutdown();
+        synchronized (this) {
+            for (FileCommand command : commandHistory) {
+                command.discard();
+            }
+            commandHistory.clear();
+        }
     }
 }
\ No newline at end of file
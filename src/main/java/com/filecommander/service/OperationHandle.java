@@ -0,0 +1,210 @@
+package com.filecommander.service;
+
+import com.filecommander.model.OperationResult;
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+
+public class OperationHandle {
+    private final FileOperationService.ProgressCallback progressCallback;
+    private final CompletableFuture<OperationResult> completion = new CompletableFuture<>();
+    private volatile boolean cancelled = false;
+    private volatile TransferTracker transferTracker;
+    private volatile Runnable transferUpdate;
+    private final Object pauseLock = new Object();
+    private volatile boolean paused = false;
+    private boolean resuming = false;
+    private volatile PauseListener pauseListener;
+    private final ProgressBus.Channel progressChannel;
+    private final ProgressBus.Channel transferChannel;
+
+    public interface PauseListener {
+        void onPause();
+        void onResume() throws InterruptedException;
+    }
+
+    public OperationHandle(FileOperationService.ProgressCallback progressCallback) {
+        this.progressCallback = progressCallback;
+        if (progressCallback != null) {
+            progressChannel = ProgressBus.getInstance().openChannel();
+            transferChannel = ProgressBus.getInstance().openChannel();
+        } else {
+            progressChannel = null;
+            transferChannel = null;
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
+        }
+        if (paused) {
+            resume();
+        }
+    }
+
+    public void pause() {
+        synchronized (pauseLock) {
+            if (paused || cancelled || isDone()) {
+                return;
+            }
+            paused = true;
+        }
+        notifyPauseState(true);
+        PauseListener listener = pauseListener;
+        if (listener != null) {
+            listener.onPause();
+        }
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            if (!paused || resuming) {
+                return;
+            }
+            resuming = true;
+        }
+
+        PauseListener listener = pauseListener;
+        if (listener == null) {
+            releasePause();
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                listener.onResume();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                releasePause();
+            }
+        }, "operation-resume");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void releasePause() {
+        synchronized (pauseLock) {
+            paused = false;
+            resuming = false;
+            pauseLock.notifyAll();
+        }
+        notifyPauseState(false);
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean checkpoint() {
+        if (paused) {
+            synchronized (pauseLock) {
+                while (paused && !cancelled) {
+                    try {
+                        pauseLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        return cancelled;
+    }
+
+    void setPauseListener(PauseListener pauseListener) {
+        boolean alreadyPaused;
+        synchronized (pauseLock) {
+            this.pauseListener = pauseListener;
+            alreadyPaused = paused && !resuming;
+        }
+        if (alreadyPaused) {
+            pauseListener.onPause();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public CompletableFuture<OperationResult> getCompletion() {
+        return completion;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    void complete(OperationResult result) {
+        if (progressCallback != null) {
+            progressChannel.close();
+            transferChannel.close();
+        }
+        completion.complete(result);
+    }
+
+    public void notifyProgress(int current, int total, String currentItem) {
+        if (progressCallback != null && !cancelled) {
+            progressChannel.publish(() -> progressCallback.onProgress(current, total, currentItem));
+        }
+    }
+
+    public void notifyStatus(String status) {
+        if (progressCallback != null) {
+            Platform.runLater(() -> progressCallback.onStatusChange(status));
+        }
+    }
+
+    private void notifyPauseState(boolean paused) {
+        if (progressCallback != null) {
+            Platform.runLater(() -> progressCallback.onPauseStateChange(paused));
+        }
+    }
+
+    public void notifyDiscoveryState(boolean complete) {
+        if (progressCallback != null) {
+            Platform.runLater(() -> progressCallback.onDiscoveryStateChange(complete));
+        }
+    }
+
+    public void beginTransfer(long totalBytes) {
+        TransferTracker tracker = new TransferTracker(totalBytes);
+        if (progressCallback != null) {
+            transferUpdate = () -> progressCallback.onTransferProgress(tracker.snapshot());
+        }
+        transferTracker = tracker;
+    }
+
+    public void addTransferredBytes(long bytes) {
+        TransferTracker tracker = transferTracker;
+        if (tracker == null) {
+            return;
+        }
+
+        tracker.add(bytes);
+        publishTransfer();
+    }
+
+    public void addTransferTotal(long bytes) {
+        TransferTracker tracker = transferTracker;
+        if (tracker != null) {
+            tracker.addTotal(bytes);
+        }
+    }
+
+    public void endTransfer() {
+        TransferTracker tracker = transferTracker;
+        if (tracker != null) {
+            publishTransfer();
+            transferTracker = null;
+        }
+    }
+
+    private void publishTransfer() {
+        if (progressCallback != null && !cancelled) {
+            transferChannel.publish(transferUpdate);
+        }
+    }
+}
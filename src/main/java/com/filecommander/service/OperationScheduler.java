@@ -0,0 +1,218 @@
+package com.filecommander.service;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class OperationScheduler {
+    public enum State { QUEUED, RUNNING, PAUSED }
+
+    public static class Job {
+        private final String description;
+        private final Set<FileStore> devices;
+        private final Runnable task;
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile State state = State.QUEUED;
+
+        private Job(String description, Set<FileStore> devices, Runnable task) {
+            this.description = description;
+            this.devices = devices;
+            this.task = task;
+        }
+
+        public String getDescription() { return description; }
+        public State getState() { return state; }
+        public long getSubmittedAt() { return submittedAt; }
+
+        public List<String> getDeviceNames() {
+            List<String> names = new ArrayList<>();
+            for (FileStore device : devices) {
+                names.add(device.name().isEmpty() ? device.toString() : device.name());
+            }
+            return names;
+        }
+    }
+
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+
+    private final int maxPerDevice;
+    private final List<Job> queued = new ArrayList<>();
+    private final List<Job> running = new ArrayList<>();
+    private final Map<FileStore, Integer> activePerDevice = new HashMap<>();
+    private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "file-operation-" + WORKER_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService resolver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "operation-resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OperationScheduler(int maxPerDevice) {
+        this.maxPerDevice = Math.max(1, maxPerDevice);
+    }
+
+    public void submit(String description, Collection<Path> paths, Runnable task, Consumer<Job> onSubmitted) {
+        List<Path> snapshot = new ArrayList<>(paths);
+        resolver.execute(() -> onSubmitted.accept(submit(description, resolveDevices(snapshot), task)));
+    }
+
+    private Job submit(String description, Set<FileStore> devices, Runnable task) {
+        Job job = new Job(description, devices, task);
+        synchronized (this) {
+            queued.add(job);
+            dispatch();
+        }
+        return job;
+    }
+
+    public synchronized List<Job> getQueuedJobs() {
+        return new ArrayList<>(queued);
+    }
+
+    public synchronized List<Job> getRunningJobs() {
+        return new ArrayList<>(running);
+    }
+
+    public synchronized int getJobsAhead(Job job) {
+        int index = queued.indexOf(job);
+        if (index < 0) {
+            return 0;
+        }
+
+        int ahead = 0;
+        List<Job> candidates = new ArrayList<>(running);
+        candidates.addAll(queued.subList(0, index));
+        for (Job other : candidates) {
+            if (other.state != State.PAUSED && !Collections.disjoint(other.devices, job.devices)) {
+                ahead++;
+            }
+        }
+        return ahead;
+    }
+
+    public synchronized void suspend(Job job) {
+        if (job.state == State.QUEUED && queued.contains(job)) {
+            job.state = State.PAUSED;
+            dispatch();
+            return;
+        }
+        if (job.state != State.RUNNING) {
+            return;
+        }
+        job.state = State.PAUSED;
+        releaseDevices(job);
+        dispatch();
+        notifyAll();
+    }
+
+    public synchronized void reacquire(Job job) throws InterruptedException {
+        if (job.state == State.PAUSED && queued.contains(job)) {
+            job.state = State.QUEUED;
+            dispatch();
+            return;
+        }
+        while (job.state == State.PAUSED && running.contains(job) && !hasCapacity(job)) {
+            wait();
+        }
+        if (job.state == State.PAUSED && running.contains(job)) {
+            job.state = State.RUNNING;
+            for (FileStore device : job.devices) {
+                activePerDevice.merge(device, 1, Integer::sum);
+            }
+        }
+    }
+
+    private boolean hasCapacity(Job job) {
+        for (FileStore device : job.devices) {
+            if (activePerDevice.getOrDefault(device, 0) >= maxPerDevice) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void releaseDevices(Job job) {
+        for (FileStore device : job.devices) {
+            activePerDevice.computeIfPresent(device, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            queued.clear();
+        }
+        resolver.shutdown();
+        workers.shutdown();
+    }
+
+    private void dispatch() {
+        Set<FileStore> reserved = new HashSet<>();
+        Iterator<Job> iterator = queued.iterator();
+
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            if (job.state == State.PAUSED) {
+                continue;
+            }
+            boolean canStart = hasCapacity(job) && Collections.disjoint(reserved, job.devices);
+
+            if (!canStart) {
+                reserved.addAll(job.devices);
+                continue;
+            }
+
+            iterator.remove();
+            job.state = State.RUNNING;
+            running.add(job);
+            for (FileStore device : job.devices) {
+                activePerDevice.merge(device, 1, Integer::sum);
+            }
+            workers.execute(() -> run(job));
+        }
+    }
+
+    private void run(Job job) {
+        try {
+            job.task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Operation failed: " + job.description + " - " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                running.remove(job);
+                if (job.state == State.RUNNING) {
+                    releaseDevices(job);
+                }
+                dispatch();
+                notifyAll();
+            }
+        }
+    }
+
+    private Set<FileStore> resolveDevices(Collection<Path> paths) {
+        Set<FileStore> devices = new LinkedHashSet<>();
+        for (Path path : paths) {
+            Path existing = path.toAbsolutePath();
+            while (existing != null && !Files.exists(existing)) {
+                existing = existing.getParent();
+            }
+            if (existing == null) {
+                continue;
+            }
+            try {
+                devices.add(Files.getFileStore(existing));
+            } catch (IOException e) {
+                System.err.println("Failed to resolve device for: " + path + " - " + e.getMessage());
+            }
+        }
+        return devices;
+    }
+}
@@ -0,0 +1,100 @@
+package com.filecommander.service;
+
+import javafx.application.Platform;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ProgressBus {
+    private static final long FRAME_INTERVAL_MS = 50;
+    private static ProgressBus instance;
+
+    private final Set<Channel> channels = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "progress-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public class Channel {
+        private final AtomicReference<Runnable> latest = new AtomicReference<>();
+
+        private Channel() {
+        }
+
+        public void publish(Runnable update) {
+            latest.set(update);
+        }
+
+        public void close() {
+            channels.remove(this);
+            Runnable update = latest.getAndSet(null);
+            if (update == null) {
+                return;
+            }
+            try {
+                Platform.runLater(update);
+            } catch (IllegalStateException e) {
+                System.err.println("Progress update dropped: " + e.getMessage());
+            }
+        }
+
+        private boolean hasPending() {
+            return latest.get() != null;
+        }
+
+        private void deliver() {
+            Runnable update = latest.getAndSet(null);
+            if (update != null) {
+                update.run();
+            }
+        }
+    }
+
+    private ProgressBus() {
+        ticker.scheduleAtFixedRate(this::requestFrame, FRAME_INTERVAL_MS, FRAME_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized ProgressBus getInstance() {
+        if (instance == null) {
+            instance = new ProgressBus();
+        }
+        return instance;
+    }
+
+    public Channel openChannel() {
+        Channel channel = new Channel();
+        channels.add(channel);
+        return channel;
+    }
+
+    private void requestFrame() {
+        if (framePending.get() || channels.stream().noneMatch(Channel::hasPending)) {
+            return;
+        }
+
+        framePending.set(true);
+        try {
+            Platform.runLater(this::renderFrame);
+        } catch (IllegalStateException e) {
+            framePending.set(false);
+        }
+    }
+
+    private void renderFrame() {
+        framePending.set(false);
+        for (Channel channel : channels) {
+            try {
+                channel.deliver();
+            } catch (RuntimeException e) {
+                System.err.println("Progress update failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.filecommander.service;
+
+import com.filecommander.command.FileCommand;
+import com.filecommander.command.StagedUndo;
+import com.filecommander.repository.SettingsRepository;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StagingReclaimer {
+    public static final String MAX_BYTES_KEY = "reclaim.maxStagedBytes";
+    public static final String MAX_AGE_HOURS_KEY = "reclaim.maxAgeHours";
+    public static final String MIN_FREE_PERCENT_KEY = "reclaim.minFreePercent";
+
+    private static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024 * 1024;
+    private static final long DEFAULT_MAX_AGE_HOURS = 24;
+    private static final long DEFAULT_MIN_FREE_PERCENT = 5;
+    private static final long RECLAIM_INTERVAL_SECONDS = 60;
+    private static final long ORPHAN_MIN_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static StagingReclaimer instance;
+    private final Map<Path, Long> stagedSizes = new ConcurrentHashMap<>();
+    private final AtomicBoolean reclaimPending = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    private long maxStagedBytes = DEFAULT_MAX_BYTES;
+    private long maxAgeMillis = TimeUnit.HOURS.toMillis(DEFAULT_MAX_AGE_HOURS);
+    private long minFreePercent = DEFAULT_MIN_FREE_PERCENT;
+
+    private StagingReclaimer() {}
+
+    public static synchronized StagingReclaimer getInstance() {
+        if (instance == null) {
+            instance = new StagingReclaimer();
+        }
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        SettingsRepository settings = SettingsRepository.getInstance();
+        maxStagedBytes = settings.getLongSetting(MAX_BYTES_KEY, DEFAULT_MAX_BYTES);
+        maxAgeMillis = TimeUnit.HOURS.toMillis(settings.getLongSetting(MAX_AGE_HOURS_KEY, DEFAULT_MAX_AGE_HOURS));
+        minFreePercent = settings.getLongSetting(MIN_FREE_PERCENT_KEY, DEFAULT_MIN_FREE_PERCENT);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "staging-reclaimer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 5, RECLAIM_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public synchronized void checkFreeSpace(FileStore store, long usableBytes) {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.execute(() -> {
+            try {
+                if (isLowOnSpace(store.getTotalSpace(), usableBytes)) {
+                    requestReclaim();
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to read disk space: " + e.getMessage());
+            }
+        });
+    }
+
+    public synchronized void requestReclaim() {
+        if (scheduler != null && reclaimPending.compareAndSet(false, true)) {
+            scheduler.execute(this::runSafely);
+        }
+    }
+
+    private void runSafely() {
+        reclaimPending.set(false);
+        try {
+            reclaim();
+        } catch (Exception e) {
+            System.err.println("Staging reclaim failed: " + e.getMessage());
+        }
+    }
+
+    private void reclaim() {
+        UndoStagingArea staging = UndoStagingArea.getInstance();
+        for (Path orphan : staging.findOrphanedEntries(ORPHAN_MIN_AGE_MILLIS, Math.max(ORPHAN_MIN_AGE_MILLIS, maxAgeMillis))) {
+            System.out.println("Reclaiming orphaned staged data: " + orphan);
+            staging.purge(orphan);
+        }
+
+        FileOperationService service = FileOperationService.getInstance();
+        List<FileCommand> history = service.getHistorySnapshot();
+        Map<FileStore, Long> deficits = findSpaceDeficits(history);
+
+        long totalBytes = 0;
+        Map<FileCommand, Long> commandBytes = new LinkedHashMap<>();
+        for (FileCommand command : history) {
+            if (command instanceof StagedUndo staged && !staged.getStagedPaths().isEmpty()) {
+                long bytes = measure(staged.getStagedPaths());
+                commandBytes.put(command, bytes);
+                totalBytes += bytes;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<FileCommand> toDiscard = new ArrayList<>();
+        for (Map.Entry<FileCommand, Long> entry : commandBytes.entrySet()) {
+            StagedUndo staged = (StagedUndo) entry.getKey();
+            long bytes = entry.getValue();
+
+            boolean expired = now - staged.getStagedAt() > maxAgeMillis;
+            boolean overBudget = totalBytes > maxStagedBytes;
+            FileStore lowStore = findLowStore(staged.getStagedPaths(), deficits);
+
+            if (expired || overBudget || lowStore != null) {
+                toDiscard.add(entry.getKey());
+                totalBytes -= bytes;
+                if (lowStore != null) {
+                    deficits.computeIfPresent(lowStore, (store, deficit) -> deficit - bytes > 0 ? deficit - bytes : null);
+                }
+            }
+        }
+
+        if (!toDiscard.isEmpty()) {
+            service.discardFromHistory(toDiscard);
+        }
+        stagedSizes.keySet().removeIf(path -> !Files.exists(path, LinkOption.NOFOLLOW_LINKS));
+    }
+
+    private Map<FileStore, Long> findSpaceDeficits(List<FileCommand> history) {
+        Map<FileStore, Long> deficits = new HashMap<>();
+        Set<FileStore> stores = new HashSet<>();
+        for (FileCommand command : history) {
+            if (command instanceof StagedUndo staged) {
+                for (Path path : staged.getStagedPaths()) {
+                    FileStore store = getFileStore(path);
+                    if (store != null) {
+                        stores.add(store);
+                    }
+                }
+            }
+        }
+
+        for (FileStore store : stores) {
+            try {
+                long total = store.getTotalSpace();
+                long usable = store.getUsableSpace();
+                if (isLowOnSpace(total, usable)) {
+                    deficits.put(store, total * minFreePercent / 100 - usable);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+        return deficits;
+    }
+
+    private FileStore findLowStore(Collection<Path> paths, Map<FileStore, Long> deficits) {
+        if (deficits.isEmpty()) {
+            return null;
+        }
+        for (Path path : paths) {
+            FileStore store = getFileStore(path);
+            if (store != null && deficits.containsKey(store)) {
+                return store;
+            }
+        }
+        return null;
+    }
+
+    private boolean isLowOnSpace(long totalBytes, long usableBytes) {
+        return totalBytes > 0 && usableBytes * 100 < totalBytes * minFreePercent;
+    }
+
+    private FileStore getFileStore(Path path) {
+        try {
+            return Files.getFileStore(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long measure(Collection<Path> paths) {
+        long total = 0;
+        for (Path path : paths) {
+            total += stagedSizes.computeIfAbsent(path, this::measureTree);
+        }
+        return total;
+    }
+
+    private long measureTree(Path path) {
+        final long[] size = {0};
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    size[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Failed to measure staged data: " + path + " - " + e.getMessage());
+        }
+        return size[0];
+    }
+}
@@ -0,0 +1,47 @@
+package com.filecommander.service;
+
+import com.filecommander.model.TransferProgress;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TransferTracker {
+    private static final long SAMPLE_INTERVAL_NANOS = 250_000_000L;
+    private static final double SMOOTHING = 0.3;
+
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong bytesTotal = new AtomicLong();
+
+    private long sampleTime;
+    private long sampleBytes;
+    private double bytesPerSecond;
+
+    public TransferTracker(long totalBytes) {
+        this.bytesTotal.set(totalBytes);
+        this.sampleTime = System.nanoTime();
+    }
+
+    public void addTotal(long bytes) {
+        bytesTotal.addAndGet(bytes);
+    }
+
+    public void add(long bytes) {
+        bytesDone.addAndGet(bytes);
+    }
+
+    public synchronized TransferProgress snapshot() {
+        long now = System.nanoTime();
+        long done = bytesDone.get();
+        long elapsed = now - sampleTime;
+
+        if (elapsed >= SAMPLE_INTERVAL_NANOS) {
+            double instant = (done - sampleBytes) * 1_000_000_000.0 / elapsed;
+            bytesPerSecond = bytesPerSecond == 0 ? instant : SMOOTHING * instant + (1 - SMOOTHING) * bytesPerSecond;
+            sampleTime = now;
+            sampleBytes = done;
+        }
+
+        long total = Math.max(bytesTotal.get(), done);
+        long eta = bytesPerSecond > 0 ? (long) Math.ceil((total - done) / bytesPerSecond) : -1;
+        return new TransferProgress(done, total, bytesPerSecond, eta);
+    }
+}
@@ -0,0 +1,292 @@
+package com.filecommander.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UndoStagingArea {
+    public static final String STAGING_DIR_NAME = ".filecommander-staging";
+    private static final String INSTANCE_DIR_PREFIX = "instance-";
+    private static final String LOCK_FILE_NAME = ".lock";
+    private static final int DELETES_PER_PAUSE = 256;
+    private static final long PAUSE_MILLIS = 5;
+
+    private static UndoStagingArea instance;
+    private final Map<FileStore, Path> stagingRoots = new ConcurrentHashMap<>();
+    private final Map<Path, FileLock> instanceLocks = new ConcurrentHashMap<>();
+    private final String instanceDirName = INSTANCE_DIR_PREFIX + ProcessHandle.current().pid() + "-"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final Set<Path> activeEntries = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger deletesSincePause = new AtomicInteger();
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "staging-purge");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private UndoStagingArea() {}
+
+    public static synchronized UndoStagingArea getInstance() {
+        if (instance == null) {
+            instance = new UndoStagingArea();
+        }
+        return instance;
+    }
+
+    public Path stage(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath().normalize();
+        if (absolute.getParent() == null) {
+            throw new IOException("Cannot stage a root path: " + path);
+        }
+        Path root = getStagingRoot(absolute.getParent());
+        Path staged = root.resolve(UUID.randomUUID() + "-" + absolute.getFileName());
+
+        activeEntries.add(staged);
+        try {
+            Files.move(absolute, staged, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            activeEntries.remove(staged);
+            throw e;
+        }
+        System.out.println("Staged for undo: " + absolute + " -> " + staged);
+        return staged;
+    }
+
+    public Path reserve(Path original) throws IOException {
+        Path absolute = original.toAbsolutePath().normalize();
+        Path root = getStagingRoot(absolute.getParent() != null ? absolute.getParent() : absolute);
+        Path reserved = root.resolve(UUID.randomUUID() + "-" + absolute.getFileName() + ".undo");
+        activeEntries.add(reserved);
+        return reserved;
+    }
+
+    public void restore(Path staged, Path original) throws IOException {
+        Path parent = original.getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+        Files.move(staged, original, StandardCopyOption.ATOMIC_MOVE);
+        activeEntries.remove(staged);
+    }
+
+    public void purgeInBackground(Path staged) {
+        purgeExecutor.execute(() -> purge(staged));
+    }
+
+    public void purge(Path staged) {
+        try {
+            deleteTree(staged);
+            activeEntries.remove(staged);
+        } catch (IOException e) {
+            System.err.println("Failed to purge staged data: " + staged + " - " + e.getMessage());
+        }
+    }
+
+    public List<Path> findOrphanedEntries(long instanceMinAgeMillis, long legacyMinAgeMillis) {
+        List<Path> orphans = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Path root : findStagingRoots()) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    if (name.equals(instanceDirName)) {
+                        continue;
+                    }
+                    if (name.startsWith(INSTANCE_DIR_PREFIX) && Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        if (isOlderThan(entry, now - instanceMinAgeMillis) && isAbandoned(entry)) {
+                            orphans.add(entry);
+                        }
+                    } else if (!activeEntries.contains(entry) && isOlderThan(entry, now - legacyMinAgeMillis)) {
+                        orphans.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to scan staging area: " + root + " - " + e.getMessage());
+            }
+        }
+        return orphans;
+    }
+
+    private boolean isAbandoned(Path instanceDir) {
+        Path lockFile = instanceDir.resolve(LOCK_FILE_NAME);
+        if (!Files.exists(lockFile, LinkOption.NOFOLLOW_LINKS)) {
+            return true;
+        }
+
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            lock.release();
+            return true;
+        } catch (IOException | OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private boolean isOlderThan(Path path, long cutoffMillis) {
+        try {
+            return Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis() < cutoffMillis;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public Set<Path> findStagingRoots() {
+        Set<Path> roots = new LinkedHashSet<>();
+        for (Path instanceDir : stagingRoots.values()) {
+            roots.add(instanceDir.getParent());
+        }
+        List<Path> anchors = new ArrayList<>();
+        anchors.add(Path.of(System.getProperty("user.home")));
+        for (Path rootDirectory : FileSystems.getDefault().getRootDirectories()) {
+            anchors.add(rootDirectory);
+        }
+
+        for (Path anchor : anchors) {
+            try {
+                FileStore store = Files.getFileStore(anchor);
+                Path root = findTopmostWritable(anchor, store).resolve(STAGING_DIR_NAME);
+                if (Files.isDirectory(root)) {
+                    roots.add(root);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+        roots.removeIf(root -> !Files.isDirectory(root));
+        return roots;
+    }
+
+    public boolean isStaged(Path path) {
+        for (Path element : path) {
+            if (STAGING_DIR_NAME.equals(element.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Path getStagingRoot(Path directory) throws IOException {
+        Path anchor = directory.toAbsolutePath().normalize();
+        FileStore store = Files.getFileStore(anchor);
+        Path root = stagingRoots.get(store);
+        if (root != null && Files.isDirectory(root)) {
+            return root;
+        }
+
+        root = createInstanceDir(createStagingRoot(findTopmostWritable(anchor, store)));
+        stagingRoots.put(store, root);
+        return root;
+    }
+
+    private Path createInstanceDir(Path stagingRoot) throws IOException {
+        Path instanceDir = stagingRoot.resolve(instanceDirName);
+        Files.createDirectories(instanceDir);
+        FileLock existing = instanceLocks.get(instanceDir);
+        if (existing == null || !existing.isValid() || !Files.exists(instanceDir.resolve(LOCK_FILE_NAME))) {
+            FileChannel channel = FileChannel.open(instanceDir.resolve(LOCK_FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                channel.close();
+                throw new IOException("Staging area is locked: " + instanceDir);
+            }
+            instanceLocks.put(instanceDir, lock);
+        }
+        return instanceDir;
+    }
+
+    private Path findTopmostWritable(Path anchor, FileStore store) {
+        Path candidate = anchor;
+        Path current = anchor.getParent();
+
+        while (current != null) {
+            try {
+                if (!Files.getFileStore(current).equals(store)) {
+                    break;
+                }
+            } catch (IOException e) {
+                break;
+            }
+            if (Files.isWritable(current)) {
+                candidate = current;
+            }
+            current = current.getParent();
+        }
+
+        return candidate;
+    }
+
+    private Path createStagingRoot(Path base) throws IOException {
+        Path root = base.resolve(STAGING_DIR_NAME);
+        if (!Files.exists(root)) {
+            Files.createDirectories(root);
+            try {
+                Files.setAttribute(root, "dos:hidden", true);
+            } catch (UnsupportedOperationException | IOException ignored) {
+            }
+        }
+        return root;
+    }
+
+    private void deleteTree(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) return;
+
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                forceDelete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) throw exc;
+                forceDelete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void forceDelete(Path path) throws IOException {
+        pace();
+        try {
+            Files.delete(path);
+        } catch (AccessDeniedException e) {
+            try {
+                Files.setAttribute(path, "dos:readonly", false);
+                Files.delete(path);
+            } catch (Exception ex) {
+                path.toFile().setWritable(true);
+                if (!path.toFile().delete()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void pace() {
+        if (deletesSincePause.incrementAndGet() % DELETES_PER_PAUSE == 0) {
+            try {
+                Thread.sleep(PAUSE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
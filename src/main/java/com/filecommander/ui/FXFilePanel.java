@@ -3,6 +3,9 @@ package com.filecommander.ui;
 import com.filecommander.localization.LocalizationManager;
 import com.filecommander.controller.FileController;
 import com.filecommander.model.FileItem;
+import com.filecommander.service.BlockingIoExecutor;
+import com.filecommander.service.DirectoryWatcher;
+import com.filecommander.service.StagingReclaimer;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -21,10 +24,13 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.SVGPath;
 import javafx.stage.Popup;
 
+import java.nio.file.FileStore;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class FXFilePanel extends BorderPane {
@@ -71,6 +77,19 @@ public class FXFilePanel extends BorderPane {
     private ContextMenu currentContextMenu;
     private Popup copyDestinationPopup;
 
+    private static final int MAX_INSERT_RUNS = 64;
+    private static final int MAX_ROW_UPDATES = 256;
+    private static final int MAX_PATCH_EDITS = 512;
+
+    private volatile long loadVersion = 0;
+    private boolean loading = false;
+    private Path displayedPath;
+    private String pendingSelection;
+    private Path watchedPath;
+    private boolean refreshAfterLoad = false;
+    private final DirectoryWatcher.Listener directoryListener = this::onDirectoryChanged;
+    private CompletableFuture<Void> watchUpdates = CompletableFuture.completedFuture(null);
+
     public FXFilePanel(String initialPath) {
         this.currentPath = Paths.get(initialPath);
         this.loc = LocalizationManager.getInstance();
@@ -898,6 +917,11 @@ public class FXFilePanel extends BorderPane {
                 moveItem.setOnAction(ev -> executeCommand("move"));
                 contextMenu.getItems().add(moveItem);
 
+                MenuItem syncItem = new MenuItem(loc.getString("context.syncToOther"));
+                syncItem.setDisable(!hasSelection || isOtherPanelInSearchMode());
+                syncItem.setOnAction(ev -> executeCommand("sync"));
+                contextMenu.getItems().add(syncItem);
+
                 MenuItem deleteItem = new MenuItem(loc.getString("context.delete"));
                 deleteItem.setDisable(!hasSelection);
                 deleteItem.setOnAction(ev -> executeCommand("delete"));
@@ -1127,10 +1151,11 @@ public class FXFilePanel extends BorderPane {
 
     private void refreshFileListData() {
         Platform.runLater(() -> {
-            List<FileItem> files;
+            long version = ++loadVersion;
 
             if (panelMode == PanelMode.SEARCH_RESULTS) {
-                files = searchResults;
+                loading = false;
+                tableView.setPlaceholder(new Label(""));
                 // ВИПРАВЛЕНО: loc.getString замість String.format
                 pathField.setText(loc.getString("panel.search.results", searchQuery, searchResults.size()));
                 diskSpaceLabel.setText(loc.getString("panel.disk.free", "0.00"));
@@ -1140,62 +1165,401 @@ public class FXFilePanel extends BorderPane {
                 btnForward.setDisable(true);
                 btnUp.setDisable(true);
                 btnGo.setDisable(true);
-            } else {
-                if (!Files.exists(currentPath)) {
-                    Path parent = currentPath.getParent();
-                    while (parent != null && !Files.exists(parent)) {
-                        parent = parent.getParent();
+
+                displayedPath = null;
+                watchDirectory(null);
+                applyListing(searchResults);
+                return;
+            }
+
+            Path requestedPath = currentPath;
+            boolean streaming = !requestedPath.equals(displayedPath);
+            showLoadingState(requestedPath);
+
+            BlockingIoExecutor.getInstance().execute(() -> {
+                Path resolvedPath = resolveExistingPath(requestedPath);
+
+                if (!streaming) {
+                    List<FileItem> files = controller.getFilesInDirectory(resolvedPath);
+                    Platform.runLater(() -> {
+                        if (version == loadVersion) {
+                            showDirectory(resolvedPath, files);
+                            finishLoading();
+                        }
+                    });
+                    return;
+                }
+
+                boolean[] received = {false};
+                controller.streamFilesInDirectory(resolvedPath, () -> version != loadVersion, batch -> {
+                    boolean initial = !received[0];
+                    received[0] = true;
+                    Platform.runLater(() -> {
+                        if (version != loadVersion) {
+                            return;
+                        }
+                        if (initial) {
+                            showDirectory(resolvedPath, batch);
+                        } else {
+                            mergeListingBatch(batch);
+                        }
+                    });
+                });
+
+                boolean empty = !received[0];
+                Platform.runLater(() -> {
+                    if (version != loadVersion) {
+                        return;
                     }
-                    if (parent != null) {
-                        currentPath = parent;
-                    } else {
-                        currentPath = Paths.get(System.getProperty("user.home"));
+                    if (empty) {
+                        showDirectory(resolvedPath, Collections.emptyList());
                     }
+                    finishLoading();
+                });
+            });
+        });
+    }
+
+    private void showDirectory(Path path, List<FileItem> files) {
+        boolean samePath = path.equals(displayedPath) && panelMode == PanelMode.NORMAL;
+        currentPath = path;
+        displayedPath = path;
+        watchDirectory(path);
+        pathField.setText(currentPath.toString());
+        updateDiskSpace();
+
+        pathField.setDisable(false);
+        btnBack.setDisable(false);
+        btnForward.setDisable(false);
+        btnUp.setDisable(false);
+        btnGo.setDisable(false);
+
+        if (samePath) {
+            patchListing(files);
+        } else {
+            applyListing(files);
+        }
+    }
+
+    private void finishLoading() {
+        loading = false;
+        tableView.setPlaceholder(new Label(""));
+        updateStatus();
+
+        if (refreshAfterLoad) {
+            refreshAfterLoad = false;
+            refreshFileList();
+            return;
+        }
+
+        if (pendingSelection != null) {
+            String fileName = pendingSelection;
+            pendingSelection = null;
+            selectFileByName(fileName);
+        }
+    }
+
+    private void watchDirectory(Path path) {
+        Path normalized = path != null ? path.toAbsolutePath().normalize() : null;
+        if (Objects.equals(normalized, watchedPath)) {
+            return;
+        }
+
+        DirectoryWatcher watcher = DirectoryWatcher.getInstance();
+        if (watchedPath != null) {
+            watcher.unwatch(watchedPath, directoryListener);
+        }
+        watchedPath = normalized;
+        refreshAfterLoad = false;
+        if (watchedPath != null) {
+            watcher.watch(watchedPath, directoryListener);
+        }
+    }
+
+    private synchronized void onDirectoryChanged(DirectoryWatcher.DirectoryChanges changes) {
+        watchUpdates = watchUpdates
+                .thenRunAsync(() -> applyDirectoryChanges(changes), BlockingIoExecutor.getInstance()::execute)
+                .exceptionally(e -> {
+                    System.err.println("Failed to apply directory changes: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    private void applyDirectoryChanges(DirectoryWatcher.DirectoryChanges changes) {
+        if (changes.isOverflow() || changes.getChangedPaths().size() > MAX_ROW_UPDATES) {
+            Platform.runLater(() -> {
+                if (changes.getDirectory().equals(watchedPath)) {
+                    scheduleWatchRefresh();
                 }
+            });
+            return;
+        }
 
-                files = controller.getFilesInDirectory(currentPath);
-                pathField.setText(currentPath.toString());
-                updateDiskSpace();
+        long version = loadVersion;
+        boolean showHidden = controller.isShowHiddenFiles();
+        List<Path> removed = new ArrayList<>();
+        List<FileItem> updated = new ArrayList<>();
+        for (Path changedPath : changes.getChangedPaths()) {
+            FileItem item = FileItem.from(changedPath);
+            if (item == null || (!showHidden && item.isHidden())) {
+                removed.add(changedPath);
+            } else {
+                updated.add(item);
+            }
+        }
 
-                pathField.setDisable(false);
-                btnBack.setDisable(false);
-                btnForward.setDisable(false);
-                btnUp.setDisable(false);
-                btnGo.setDisable(false);
+        Platform.runLater(() -> {
+            if (!changes.getDirectory().equals(watchedPath) || panelMode != PanelMode.NORMAL || version != loadVersion) {
+                return;
             }
+            if (loading) {
+                refreshAfterLoad = true;
+                return;
+            }
+            applyRowChanges(removed, updated);
+        });
+    }
 
-            FileItem selectedItem = tableView.getSelectionModel().getSelectedItem();
-            int selectedIndex = tableView.getSelectionModel().getSelectedIndex();
+    private void scheduleWatchRefresh() {
+        if (loading) {
+            refreshAfterLoad = true;
+        } else {
+            refreshFileList();
+        }
+    }
 
-            ObservableList<FileItem> items = FXCollections.observableArrayList(files);
-            tableView.setItems(items);
+    private void applyRowChanges(List<Path> removed, List<FileItem> updated) {
+        ObservableList<FileItem> items = tableView.getItems();
+        ViewState viewState = captureViewState();
 
-            if (selectedItem != null && selectedIndex >= 0 && selectedIndex < items.size()) {
-                tableView.getSelectionModel().select(selectedIndex);
-                tableView.getFocusModel().focus(selectedIndex);
-            } else if (!items.isEmpty() && isActive) {
-                tableView.getSelectionModel().clearAndSelect(0);
-                tableView.getFocusModel().focus(0);
+        for (Path path : removed) {
+            int index = indexOfPath(items, path);
+            if (index >= 0) {
+                items.remove(index);
+            }
+        }
+
+        for (FileItem item : updated) {
+            int existing = indexOfPath(items, item.getPath());
+            if (existing >= 0 && items.get(existing).isDirectory() == item.isDirectory()) {
+                items.set(existing, item);
+                continue;
+            }
+            if (existing >= 0) {
+                items.remove(existing);
+            }
+            int index = Collections.binarySearch(items, item, FileController.LISTING_ORDER);
+            items.add(index < 0 ? -index - 1 : index, item);
+        }
+
+        restoreViewState(viewState);
+        updateStatus();
+    }
+
+    private int indexOfPath(List<FileItem> items, Path path) {
+        if (path.getFileName() == null) {
+            return -1;
+        }
+
+        String name = path.getFileName().toString();
+        for (boolean directory : new boolean[]{true, false}) {
+            FileItem probe = new FileItem(path, name, 0, null, directory, false);
+            int index = Collections.binarySearch(items, probe, FileController.LISTING_ORDER);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void mergeListingBatch(List<FileItem> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        ObservableList<FileItem> items = tableView.getItems();
+        List<Integer> runStarts = new ArrayList<>();
+        List<Integer> runPositions = new ArrayList<>();
+        List<FileItem> merged = new ArrayList<>(items.size() + batch.size());
+
+        int existing = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            FileItem item = batch.get(i);
+            while (existing < items.size() && FileController.LISTING_ORDER.compare(items.get(existing), item) <= 0) {
+                merged.add(items.get(existing++));
+            }
+            if (runPositions.isEmpty() || runPositions.get(runPositions.size() - 1) != existing) {
+                runStarts.add(i);
+                runPositions.add(existing);
+            }
+            merged.add(item);
+        }
+        merged.addAll(items.subList(existing, items.size()));
+
+        if (runStarts.size() <= MAX_INSERT_RUNS) {
+            for (int run = runStarts.size() - 1; run >= 0; run--) {
+                int end = run + 1 < runStarts.size() ? runStarts.get(run + 1) : batch.size();
+                items.addAll(runPositions.get(run), batch.subList(runStarts.get(run), end));
             }
+        } else {
+            ViewState viewState = captureViewState();
+            items.setAll(merged);
+            restoreViewState(viewState);
+        }
+
+        updateStatus();
+    }
 
+    private void patchListing(List<FileItem> files) {
+        ObservableList<FileItem> items = tableView.getItems();
+        List<Consumer<List<FileItem>>> edits = ListingPatch.compute(items, files);
+
+        if (edits.isEmpty()) {
             updateStatus();
+            return;
+        }
 
-            if (isActive) {
-                Platform.runLater(() -> {
-                    if (!items.isEmpty()) {
-                        tableView.requestFocus();
-                        if (panelMode == PanelMode.SEARCH_RESULTS) {
-                            if (tableView.getFocusModel().getFocusedIndex() < 0) {
-                                tableView.getFocusModel().focus(0);
-                                tableView.getSelectionModel().clearAndSelect(0);
-                            }
-                        }
-                    } else {
-                        this.requestFocus();
-                    }
-                });
+        ViewState viewState = captureViewState();
+        if (edits.size() > MAX_PATCH_EDITS) {
+            items.setAll(files);
+        } else {
+            for (Consumer<List<FileItem>> edit : edits) {
+                edit.accept(items);
             }
-        });
+        }
+        restoreViewState(viewState);
+        updateStatus();
+    }
+
+    private static class ViewState {
+        final List<FileItem> selectedItems;
+        final FileItem focusedItem;
+        final FileItem topItem;
+
+        ViewState(List<FileItem> selectedItems, FileItem focusedItem, FileItem topItem) {
+            this.selectedItems = selectedItems;
+            this.focusedItem = focusedItem;
+            this.topItem = topItem;
+        }
+    }
+
+    private ViewState captureViewState() {
+        int topIndex = firstVisibleIndex();
+        List<FileItem> items = tableView.getItems();
+        return new ViewState(
+                new ArrayList<>(tableView.getSelectionModel().getSelectedItems()),
+                tableView.getFocusModel().getFocusedItem(),
+                topIndex >= 0 && topIndex < items.size() ? items.get(topIndex) : null
+        );
+    }
+
+    private void restoreViewState(ViewState viewState) {
+        List<FileItem> items = tableView.getItems();
+        TableView.TableViewSelectionModel<FileItem> selectionModel = tableView.getSelectionModel();
+
+        List<Integer> selectedIndices = new ArrayList<>();
+        for (FileItem item : viewState.selectedItems) {
+            int index = Collections.binarySearch(items, item, FileController.LISTING_ORDER);
+            if (index >= 0) {
+                selectedIndices.add(index);
+            }
+        }
+        if (!new HashSet<>(selectionModel.getSelectedIndices()).equals(new HashSet<>(selectedIndices))) {
+            selectionModel.clearSelection();
+            for (int index : selectedIndices) {
+                selectionModel.select(index);
+            }
+        }
+
+        if (viewState.focusedItem != null) {
+            int index = Collections.binarySearch(items, viewState.focusedItem, FileController.LISTING_ORDER);
+            if (index >= 0 && tableView.getFocusModel().getFocusedIndex() != index) {
+                tableView.getFocusModel().focus(index);
+            }
+        }
+
+        if (viewState.topItem != null) {
+            int index = Collections.binarySearch(items, viewState.topItem, FileController.LISTING_ORDER);
+            if (index >= 0 && index != firstVisibleIndex()) {
+                tableView.scrollTo(index);
+            }
+        }
+    }
+
+    private int firstVisibleIndex() {
+        try {
+            Object virtualFlow = tableView.lookup(".virtual-flow");
+            if (virtualFlow == null) {
+                return -1;
+            }
+
+            java.lang.reflect.Method getFirstVisibleCellMethod = virtualFlow.getClass().getMethod("getFirstVisibleCell");
+            Object firstCell = getFirstVisibleCellMethod.invoke(virtualFlow);
+            if (firstCell == null) {
+                return -1;
+            }
+
+            java.lang.reflect.Method getIndexMethod = firstCell.getClass().getMethod("getIndex");
+            return (int) getIndexMethod.invoke(firstCell);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private Path resolveExistingPath(Path path) {
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        Path parent = path.getParent();
+        while (parent != null && !Files.exists(parent)) {
+            parent = parent.getParent();
+        }
+        return parent != null ? parent : Paths.get(System.getProperty("user.home"));
+    }
+
+    private void showLoadingState(Path path) {
+        loading = true;
+        pathField.setText(path.toString());
+        statusLabel.setText(loc.getString("panel.loading"));
+        tableView.setPlaceholder(new Label(loc.getString("panel.loading")));
+
+        if (!path.equals(displayedPath)) {
+            displayedPath = null;
+            tableView.getItems().clear();
+        }
+    }
+
+    private void applyListing(List<FileItem> files) {
+        FileItem selectedItem = tableView.getSelectionModel().getSelectedItem();
+        int selectedIndex = tableView.getSelectionModel().getSelectedIndex();
+
+        ObservableList<FileItem> items = FXCollections.observableArrayList(files);
+        tableView.setItems(items);
+
+        if (selectedItem != null && selectedIndex >= 0 && selectedIndex < items.size()) {
+            tableView.getSelectionModel().select(selectedIndex);
+            tableView.getFocusModel().focus(selectedIndex);
+        } else if (!items.isEmpty() && isActive) {
+            tableView.getSelectionModel().clearAndSelect(0);
+            tableView.getFocusModel().focus(0);
+        }
+
+        updateStatus();
+
+        if (isActive) {
+            Platform.runLater(() -> {
+                if (!items.isEmpty()) {
+                    tableView.requestFocus();
+                    if (panelMode == PanelMode.SEARCH_RESULTS && tableView.getFocusModel().getFocusedIndex() < 0) {
+                        tableView.getFocusModel().focus(0);
+                        tableView.getSelectionModel().clearAndSelect(0);
+                    }
+                } else {
+                    this.requestFocus();
+                }
+            });
+        }
     }
 
     private void updateDiskSpace() {
@@ -1206,7 +1570,9 @@ public class FXFilePanel extends BorderPane {
 
         if (isRootDrive) {
             try {
-                long availableBytes = Files.getFileStore(currentPath).getUsableSpace();
+                FileStore fileStore = Files.getFileStore(currentPath);
+                long availableBytes = fileStore.getUsableSpace();
+                StagingReclaimer.getInstance().checkFreeSpace(fileStore, availableBytes);
                 double availableGB = availableBytes / (1024.0 * 1024.0 * 1024.0);
 
                 String gbString = String.format("%.2f", availableGB);
@@ -1261,7 +1627,7 @@ public class FXFilePanel extends BorderPane {
     }
 
     private void executeCommand(String command) {
-        if (isInSearchMode() && (command.equals("move") || command.equals("newFolder") || command.equals("rename") || command.equals("delete"))) {
+        if (isInSearchMode() && (command.equals("move") || command.equals("sync") || command.equals("newFolder") || command.equals("rename") || command.equals("delete"))) {
             showSearchModeError();
             return;
         }
@@ -1286,6 +1652,11 @@ public class FXFilePanel extends BorderPane {
                     controller.initiateMoveOperation(this);
                 }
                 break;
+            case "sync":
+                if (!tableView.getSelectionModel().getSelectedItems().isEmpty()) {
+                    controller.initiateSyncOperation(this);
+                }
+                break;
             case "delete":
                 if (!tableView.getSelectionModel().getSelectedItems().isEmpty()) {
                     controller.initiateDeleteOperation(this);
@@ -1997,6 +2368,10 @@ public class FXFilePanel extends BorderPane {
 
     public void selectFileByName(String fileName) {
         Platform.runLater(() -> {
+            if (loading) {
+                pendingSelection = fileName;
+                return;
+            }
             for (int i = 0; i < tableView.getItems().size(); i++) {
                 if (tableView.getItems().get(i).getName().equals(fileName)) {
                     tableView.getSelectionModel().clearSelection();
@@ -0,0 +1,67 @@
+package com.filecommander.ui;
+
+import com.filecommander.controller.FileController;
+import com.filecommander.model.FileItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+final class ListingPatch {
+
+    private ListingPatch() {}
+
+    static List<Consumer<List<FileItem>>> compute(List<FileItem> items, List<FileItem> files) {
+        List<Consumer<List<FileItem>>> edits = new ArrayList<>();
+
+        int oldIndex = items.size() - 1;
+        int newIndex = files.size() - 1;
+        while (oldIndex >= 0 || newIndex >= 0) {
+            int comparison;
+            if (newIndex < 0) {
+                comparison = 1;
+            } else if (oldIndex < 0) {
+                comparison = -1;
+            } else {
+                comparison = FileController.LISTING_ORDER.compare(items.get(oldIndex), files.get(newIndex));
+            }
+
+            if (comparison == 0) {
+                FileItem current = items.get(oldIndex);
+                FileItem fresh = files.get(newIndex);
+                if (isRowChanged(current, fresh)) {
+                    int index = oldIndex;
+                    edits.add(target -> target.set(index, fresh));
+                }
+                oldIndex--;
+                newIndex--;
+            } else if (comparison > 0) {
+                int end = oldIndex + 1;
+                while (oldIndex >= 0 && (newIndex < 0
+                        || FileController.LISTING_ORDER.compare(items.get(oldIndex), files.get(newIndex)) > 0)) {
+                    oldIndex--;
+                }
+                int start = oldIndex + 1;
+                edits.add(target -> target.subList(start, end).clear());
+            } else {
+                int end = newIndex + 1;
+                while (newIndex >= 0 && (oldIndex < 0
+                        || FileController.LISTING_ORDER.compare(items.get(oldIndex), files.get(newIndex)) < 0)) {
+                    newIndex--;
+                }
+                int position = oldIndex + 1;
+                List<FileItem> inserted = files.subList(newIndex + 1, end);
+                edits.add(target -> target.addAll(position, inserted));
+            }
+        }
+
+        return edits;
+    }
+
+    static boolean isRowChanged(FileItem current, FileItem fresh) {
+        return current.getSize() != fresh.getSize()
+                || current.isHidden() != fresh.isHidden()
+                || !Objects.equals(current.getLastModified(), fresh.getLastModified());
+    }
+}
@@ -82,7 +82,19 @@ public class MainWindow {
             System.out.println("Initial path: C:\\");
         });
 
+        settingsRepository.addListener("theme", (key, value) -> runOnFxThread(() -> applyTheme("dark".equals(value))));
+        settingsRepository.addListener("language", (key, value) -> runOnFxThread(() -> applyLanguage(value)));
+
         FileController.getInstance().setMainWindow(this);
+        Platform.runLater(() -> FileController.getInstance().offerTransferResume());
+    }
+
+    private void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
     }
 
     public void setIconForDialog(Dialog<?> dialog) {
@@ -194,11 +206,15 @@ public class MainWindow {
     }
 
     public void toggleTheme() {
-        isDarkTheme = !isDarkTheme;
+        settingsRepository.saveTheme(settingsRepository.isDarkTheme() ? "light" : "dark");
+    }
 
-        String themeValue = isDarkTheme ? "dark" : "light";
-        settingsRepository.saveTheme(themeValue);
-        System.out.println("Theme toggled to: " + themeValue);
+    private void applyTheme(boolean dark) {
+        if (dark == isDarkTheme) {
+            return;
+        }
+        isDarkTheme = dark;
+        System.out.println("Theme toggled to: " + (dark ? "dark" : "light"));
 
         BorderPane root = (BorderPane) leftPanel.getScene().getRoot();
         applyBackgroundTheme(root);
@@ -206,13 +222,15 @@ public class MainWindow {
     }
 
     public void changeLanguage() {
-        LocalizationManager locManager = LocalizationManager.getInstance();
-        String currentLang = locManager.getCurrentLanguage();
-
-        String newLang = currentLang.equals("uk") ? "en" : "uk";
+        settingsRepository.saveLanguage(settingsRepository.getLanguage().equals("uk") ? "en" : "uk");
+    }
 
+    private void applyLanguage(String newLang) {
+        LocalizationManager locManager = LocalizationManager.getInstance();
+        if (newLang.equals(locManager.getCurrentLanguage())) {
+            return;
+        }
         locManager.setLanguage(newLang);
-        settingsRepository.saveLanguage(newLang);
 
         System.out.println("Language changed to: " + newLang);
 
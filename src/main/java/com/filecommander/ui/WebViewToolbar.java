@@ -79,6 +79,13 @@ public class WebViewToolbar extends BorderPane {
         }
     }
 
+    public void updateVerifyButton() {
+        boolean enabled = controller.isVerifyCopies();
+        if (webEngine != null) {
+            webEngine.executeScript("updateVerifyButton(" + enabled + ");");
+        }
+    }
+
     private String getHTMLContent() {
         LocalizationManager loc = LocalizationManager.getInstance();
 
@@ -341,6 +348,9 @@ public class WebViewToolbar extends BorderPane {
                 "      <span class=\"button-text\">" + loc.getString("toolbar.showHidden") + "</span>" +
                 "      <span class=\"button-hotkey\">Ctrl+H</span>" +
                 "    </button>" +
+                "    <button class=\"tool-button\" id=\"verifyBtn\" onclick=\"executeAction('toggleVerify')\">" +
+                "      <span class=\"button-text\">" + loc.getString(controller.isVerifyCopies() ? "toolbar.verifyOn" : "toolbar.verifyOff") + "</span>" +
+                "    </button>" +
                 "    <button class=\"tool-button\" onclick=\"executeAction('toggleTheme')\">" +
                 "      <span class=\"button-text\">" + loc.getString("toolbar.theme") + "</span>" +
                 "      <span class=\"button-hotkey\">Ctrl+T</span>" +
@@ -387,6 +397,10 @@ public class WebViewToolbar extends BorderPane {
                 "    textSpan.textContent='" + loc.getString("toolbar.showHidden") + "';" +
                 "  }" +
                 "}" +
+                "function updateVerifyButton(enabled){" +
+                "  const textSpan=document.getElementById('verifyBtn').querySelector('.button-text');" +
+                "  textSpan.textContent=enabled?'" + loc.getString("toolbar.verifyOn") + "':'" + loc.getString("toolbar.verifyOff") + "';" +
+                "}" +
                 "</script>" +
                 "</body>" +
                 "</html>";
@@ -410,7 +424,8 @@ public class WebViewToolbar extends BorderPane {
                         action.equals("history") ||
                         action.equals("toggleTheme") ||
                         action.equals("changeLanguage") ||
-                        action.equals("toggleHidden");
+                        action.equals("toggleHidden") ||
+                        action.equals("toggleVerify");
 
                 if (activePanel != null && activePanel.isInSearchMode()) {
                     if (!isSafeAction) {
@@ -465,6 +480,11 @@ public class WebViewToolbar extends BorderPane {
                         updateHiddenFilesButton();
                         break;
 
+                    case "toggleVerify":
+                        controller.toggleVerifyCopies();
+                        updateVerifyButton();
+                        break;
+
                     case "toggleTheme":
                         mainWindow.toggleTheme();
                         break;
@@ -2,6 +2,7 @@ package com.filecommander.ui.dialogs;
 
 import com.filecommander.model.OperationHistory;
 import com.filecommander.repository.OperationHistoryRepository;
+import com.filecommander.service.BlockingIoExecutor;
 import com.filecommander.localization.LocalizationManager;
 import javafx.application.Platform;
 import javafx.concurrent.Worker;
@@ -122,36 +123,40 @@ public class WebViewHistoryDialog extends Stage {
     }
 
     private void loadHistory() {
-        Platform.runLater(() -> {
-            try {
-                List<OperationHistory> history = repository.getRecentOperations(50);
-                StringBuilder jsonBuilder = new StringBuilder("[");
-
-                for (int i = 0; i < history.size(); i++) {
-                    OperationHistory op = history.get(i);
-                    if (i > 0) jsonBuilder.append(",");
-
-                    String localizedType = getLocalizedOperationType(op.getOperationType());
-                    String localizedStatus = getLocalizedStatus(op.getStatus());
-                    String localizedDesc = localizeDescription(op.getDescription());
-
-                    jsonBuilder.append("{")
-                            .append("\"id\":").append(op.getId()).append(",")
-                            .append("\"type\":\"").append(escapeJson(localizedType)).append("\",")
-                            .append("\"description\":\"").append(escapeJson(localizedDesc)).append("\",")
-                            .append("\"time\":\"").append(escapeJson(op.getExecutedAt())).append("\",")
-                            .append("\"status\":\"").append(escapeJson(localizedStatus)).append("\"")
-                            .append("}");
-                }
+        BlockingIoExecutor.getInstance().execute(() -> {
+            List<OperationHistory> history = repository.getRecentOperations(50);
+            Platform.runLater(() -> renderHistory(history));
+        });
+    }
+
+    private void renderHistory(List<OperationHistory> history) {
+        try {
+            StringBuilder jsonBuilder = new StringBuilder("[");
+
+            for (int i = 0; i < history.size(); i++) {
+                OperationHistory op = history.get(i);
+                if (i > 0) jsonBuilder.append(",");
 
-                jsonBuilder.append("]");
-                String script = "if(typeof updateHistory === 'function') { updateHistory(" + jsonBuilder.toString() + "); }";
-                webEngine.executeScript(script);
-            } catch (Exception e) {
-                System.err.println("Error loading history: " + e.getMessage());
-                e.printStackTrace();
+                String localizedType = getLocalizedOperationType(op.getOperationType());
+                String localizedStatus = getLocalizedStatus(op.getStatus());
+                String localizedDesc = localizeDescription(op.getDescription());
+
+                jsonBuilder.append("{")
+                        .append("\"id\":").append(op.getId()).append(",")
+                        .append("\"type\":\"").append(escapeJson(localizedType)).append("\",")
+                        .append("\"description\":\"").append(escapeJson(localizedDesc)).append("\",")
+                        .append("\"time\":\"").append(escapeJson(op.getExecutedAt())).append("\",")
+                        .append("\"status\":\"").append(escapeJson(localizedStatus)).append("\"")
+                        .append("}");
             }
-        });
+
+            jsonBuilder.append("]");
+            String script = "if(typeof updateHistory === 'function') { updateHistory(" + jsonBuilder.toString() + "); }";
+            webEngine.executeScript(script);
+        } catch (Exception e) {
+            System.err.println("Error loading history: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     private String escapeJson(String str) {
@@ -1,6 +1,8 @@
 package com.filecommander.ui.dialogs;
 
 import com.filecommander.localization.LocalizationManager;
+import com.filecommander.model.FileItem;
+import com.filecommander.model.TransferProgress;
 import javafx.application.Platform;
 import javafx.concurrent.Worker;
 import javafx.scene.Scene;
@@ -18,6 +20,8 @@ public class WebViewProgressDialog extends Stage {
     private JSBridge jsBridge;
     private boolean isDarkTheme;
     private Runnable onCancel;
+    private Runnable onPause;
+    private Runnable onResume;
     private boolean isSearchMode = false;
     private LocalizationManager loc;
 
@@ -46,13 +50,16 @@ public class WebViewProgressDialog extends Stage {
                 if (isDarkTheme) {
                     webEngine.executeScript("document.body.classList.add('dark');");
                 }
+                if (onPause != null) {
+                    webEngine.executeScript("showPauseButton();");
+                }
             }
         });
 
         BorderPane root = new BorderPane();
         root.setCenter(webView);
 
-        Scene scene = new Scene(root, 550, 340);
+        Scene scene = new Scene(root, 550, 370);
         setScene(scene);
     }
 
@@ -66,7 +73,7 @@ public class WebViewProgressDialog extends Stage {
     }
 
     public void updateProgress(int current, int total, String currentFile) {
-        Platform.runLater(() -> {
+        runOnFxThread(() -> {
             if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
                 int percentage = total > 0 ? (int) ((current * 100.0) / total) : 0;
                 webEngine.executeScript("updateProgress(" + percentage + ", " + current + ", " + total + ", '" + escapeJs(currentFile) + "');");
@@ -74,8 +81,40 @@ public class WebViewProgressDialog extends Stage {
         });
     }
 
+    public void setTotalFinal(boolean totalFinal) {
+        runOnFxThread(() -> {
+            if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+                webEngine.executeScript("setTotalFinal(" + totalFinal + ");");
+            }
+        });
+    }
+
+    public void updateTransferProgress(TransferProgress progress) {
+        runOnFxThread(() -> {
+            if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+                String bytes = FileItem.formatSize(progress.getBytesDone()) + " / " + FileItem.formatSize(progress.getBytesTotal());
+                String speed = progress.getBytesPerSecond() > 0
+                        ? loc.getString("progress.speed", FileItem.formatSize((long) progress.getBytesPerSecond()))
+                        : "";
+                String eta = progress.hasEta() ? loc.getString("progress.remaining", formatDuration(progress.getEtaSeconds())) : "";
+                webEngine.executeScript("updateTransfer(" + progress.getPercentage() + ", " + progress.getBytesTotal() + ", '"
+                        + escapeJs(bytes) + "', '" + escapeJs(speed) + "', '" + escapeJs(eta) + "');");
+            }
+        });
+    }
+
+    private String formatDuration(long seconds) {
+        long hours = seconds / 3600;
+        long minutes = (seconds % 3600) / 60;
+        long secs = seconds % 60;
+        if (hours > 0) {
+            return String.format("%d:%02d:%02d", hours, minutes, secs);
+        }
+        return String.format("%02d:%02d", minutes, secs);
+    }
+
     public void updateSearchProgress(int filesScanned, int filesFound, String currentPath) {
-        Platform.runLater(() -> {
+        runOnFxThread(() -> {
             if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
                 webEngine.executeScript("updateSearchProgress(" + filesScanned + ", " + filesFound + ", '" + escapeJs(currentPath) + "');");
             }
@@ -83,7 +122,7 @@ public class WebViewProgressDialog extends Stage {
     }
 
     public void setStatus(String status) {
-        Platform.runLater(() -> {
+        runOnFxThread(() -> {
             if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
                 webEngine.executeScript("setStatus('" + escapeJs(status) + "');");
             }
@@ -94,6 +133,24 @@ public class WebViewProgressDialog extends Stage {
         this.onCancel = onCancel;
     }
 
+    public void setOnPause(Runnable onPause, Runnable onResume) {
+        this.onPause = onPause;
+        this.onResume = onResume;
+        Platform.runLater(() -> {
+            if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+                webEngine.executeScript("showPauseButton();");
+            }
+        });
+    }
+
+    public void setPaused(boolean paused) {
+        runOnFxThread(() -> {
+            if (webEngine != null && webEngine.getLoadWorker().getState() == Worker.State.SUCCEEDED) {
+                webEngine.executeScript("setPaused(" + paused + ");");
+            }
+        });
+    }
+
     public void close() {
         Platform.runLater(() -> {
             if (this.isShowing()) {
@@ -102,6 +159,14 @@ public class WebViewProgressDialog extends Stage {
         });
     }
 
+    private void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+
     private String escapeJs(String str) {
         if (str == null) return "";
         return str.replace("\\", "\\\\")
@@ -114,8 +179,12 @@ public class WebViewProgressDialog extends Stage {
     private String getHTMLContent(String title) {
         String preparingText = loc.getString("progress.preparing");
         String cancelText = loc.getString("progress.cancel");
+        String pauseText = loc.getString("progress.pause");
+        String resumeText = loc.getString("progress.resume");
+        String pausedText = loc.getString("progress.paused");
         String foundText = loc.getString("progress.found");
         String scannedText = loc.getString("progress.scanned");
+        String atLeastText = loc.getString("progress.atLeast");
 
         return "<!DOCTYPE html>\n" +
                 "<html>\n" +
@@ -239,6 +308,22 @@ public class WebViewProgressDialog extends Stage {
                 "  border-top:1px solid var(--border);\n" +
                 "  display:flex;\n" +
                 "  justify-content:flex-end;\n" +
+                "  gap:12px;\n" +
+                "}\n" +
+                ".btn-pause {\n" +
+                "  display:none;\n" +
+                "  padding:12px 32px;\n" +
+                "  background:var(--bg-secondary);\n" +
+                "  border:1px solid var(--border);\n" +
+                "  border-radius:8px;\n" +
+                "  color:var(--text-primary);\n" +
+                "  font-size:13px;\n" +
+                "  font-weight:600;\n" +
+                "  cursor:pointer;\n" +
+                "  transition:all 0.2s;\n" +
+                "}\n" +
+                ".btn-pause:hover {\n" +
+                "  transform:translateY(-1px);\n" +
                 "}\n" +
                 ".btn-cancel {\n" +
                 "  padding:12px 32px;\n" +
@@ -272,13 +357,33 @@ public class WebViewProgressDialog extends Stage {
                 "    <span id=\"percentage\">0%</span>\n" +
                 "    <span id=\"fileCount\">0 / 0</span>\n" +
                 "  </div>\n" +
+                "  <div class=\"stats\">\n" +
+                "    <span id=\"byteCount\"></span>\n" +
+                "    <span id=\"throughput\"></span>\n" +
+                "  </div>\n" +
                 "  <div class=\"current-file\" id=\"currentFile\">...</div>\n" +
                 "</div>\n" +
                 "<div class=\"footer\">\n" +
+                "  <button class=\"btn-pause\" id=\"pauseButton\" onclick=\"togglePause()\">" + escapeJs(pauseText) + "</button>\n" +
                 "  <button class=\"btn-cancel\" onclick=\"cancel()\">" + escapeJs(cancelText) + "</button>\n" +
                 "</div>\n" +
                 "<script>\n" +
                 "let isSearchMode = false;\n" +
+                "let isByteMode = false;\n" +
+                "let totalFinal = true;\n" +
+                "let lastCurrent = 0;\n" +
+                "let lastTotal = 0;\n" +
+                "let lastPercentage = 0;\n" +
+                "const atLeastLabel = '" + escapeJs(atLeastText) + "';\n" +
+                "function renderCounts() {\n" +
+                "  const totalText = totalFinal ? lastTotal : atLeastLabel.replace('{0}', lastTotal);\n" +
+                "  document.getElementById('fileCount').textContent = lastCurrent + ' / ' + totalText;\n" +
+                "  document.getElementById('percentage').textContent = totalFinal ? lastPercentage + '%' : '';\n" +
+                "}\n" +
+                "function setTotalFinal(value) {\n" +
+                "  totalFinal = value;\n" +
+                "  renderCounts();\n" +
+                "}\n" +
                 "const foundLabel = '" + escapeJs(foundText) + "';\n" +
                 "const scannedLabel = '" + escapeJs(scannedText) + "';\n" +
                 "function setSearchMode(mode) {\n" +
@@ -288,11 +393,25 @@ public class WebViewProgressDialog extends Stage {
                 "  }\n" +
                 "}\n" +
                 "function updateProgress(percentage, current, total, file) {\n" +
-                "  document.getElementById('progressBar').style.width = percentage + '%';\n" +
-                "  document.getElementById('percentage').textContent = percentage + '%';\n" +
-                "  document.getElementById('fileCount').textContent = current + ' / ' + total;\n" +
+                "  if (!isByteMode) {\n" +
+                "    document.getElementById('progressBar').style.width = percentage + '%';\n" +
+                "    lastPercentage = percentage;\n" +
+                "  }\n" +
+                "  lastCurrent = current;\n" +
+                "  lastTotal = total;\n" +
+                "  renderCounts();\n" +
                 "  document.getElementById('currentFile').textContent = file;\n" +
                 "}\n" +
+                "function updateTransfer(percentage, totalBytes, bytes, speed, eta) {\n" +
+                "  isByteMode = totalBytes > 0;\n" +
+                "  if (isByteMode) {\n" +
+                "    document.getElementById('progressBar').style.width = percentage + '%';\n" +
+                "    lastPercentage = percentage;\n" +
+                "    renderCounts();\n" +
+                "  }\n" +
+                "  document.getElementById('byteCount').textContent = bytes;\n" +
+                "  document.getElementById('throughput').textContent = [speed, eta].filter(s => s).join(' · ');\n" +
+                "}\n" +
                 "function updateSearchProgress(scanned, found, path) {\n" +
                 "  document.getElementById('percentage').textContent = foundLabel + ': ' + found;\n" +
                 "  document.getElementById('fileCount').textContent = scannedLabel + ': ' + scanned;\n" +
@@ -301,6 +420,31 @@ public class WebViewProgressDialog extends Stage {
                 "function setStatus(status) {\n" +
                 "  document.getElementById('status').textContent = status;\n" +
                 "}\n" +
+                "let isPaused = false;\n" +
+                "let statusBeforePause = '';\n" +
+                "function showPauseButton() {\n" +
+                "  document.getElementById('pauseButton').style.display = 'inline-block';\n" +
+                "}\n" +
+                "function togglePause() {\n" +
+                "  if (isPaused) {\n" +
+                "    javaBridge.resume();\n" +
+                "  } else {\n" +
+                "    javaBridge.pause();\n" +
+                "  }\n" +
+                "}\n" +
+                "function setPaused(paused) {\n" +
+                "  if (paused === isPaused) return;\n" +
+                "  const status = document.getElementById('status');\n" +
+                "  isPaused = paused;\n" +
+                "  if (isPaused) {\n" +
+                "    statusBeforePause = status.textContent;\n" +
+                "    status.textContent = '" + escapeJs(pausedText) + "';\n" +
+                "    document.getElementById('pauseButton').textContent = '" + escapeJs(resumeText) + "';\n" +
+                "  } else {\n" +
+                "    status.textContent = statusBeforePause;\n" +
+                "    document.getElementById('pauseButton').textContent = '" + escapeJs(pauseText) + "';\n" +
+                "  }\n" +
+                "}\n" +
                 "function cancel() {\n" +
                 "  javaBridge.cancel();\n" +
                 "}\n" +
@@ -310,6 +454,22 @@ public class WebViewProgressDialog extends Stage {
     }
 
     public class JSBridge {
+        public void pause() {
+            Platform.runLater(() -> {
+                if (onPause != null) {
+                    onPause.run();
+                }
+            });
+        }
+
+        public void resume() {
+            Platform.runLater(() -> {
+                if (onResume != null) {
+                    onResume.run();
+                }
+            });
+        }
+
         public void cancel() {
             Platform.runLater(() -> {
                 if (onCancel != null) {
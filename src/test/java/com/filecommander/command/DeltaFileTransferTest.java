@@ -0,0 +1,101 @@
+package com.filecommander.command;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaFileTransferTest {
+    private static final int BLOCK = 64 * 1024;
+    private static final FileTime ORIGINAL_TIME = FileTime.fromMillis(1_600_000_000_000L);
+
+    @TempDir
+    Path dir;
+
+    private byte[] random(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private Path target(byte[] data) throws IOException {
+        Path target = Files.write(dir.resolve("target.bin"), data);
+        Files.setLastModifiedTime(target, ORIGINAL_TIME);
+        return target;
+    }
+
+    private void assertRoundTrip(byte[] original, byte[] updated) throws IOException {
+        Path source = Files.write(dir.resolve("source.bin"), updated);
+        Path target = target(original);
+        Path undoLog = dir.resolve("target.undo");
+
+        DeltaFileTransfer.transfer(source, target, undoLog, () -> false, null);
+        assertArrayEquals(updated, Files.readAllBytes(target));
+
+        DeltaFileTransfer.revert(target, undoLog);
+        assertArrayEquals(original, Files.readAllBytes(target));
+        assertEquals(ORIGINAL_TIME.toMillis(), Files.getLastModifiedTime(target).toMillis());
+    }
+
+    @Test
+    void revertRestoresChangedBlocks() throws IOException {
+        byte[] original = random(16 * BLOCK, 1);
+        byte[] updated = original.clone();
+        updated[3] ^= 1;
+        updated[5 * BLOCK + 17] ^= 1;
+        updated[updated.length - 1] ^= 1;
+
+        Path source = Files.write(dir.resolve("source.bin"), updated);
+        Path target = target(original);
+        Path undoLog = dir.resolve("target.undo");
+
+        long written = DeltaFileTransfer.transfer(source, target, undoLog, () -> false, null);
+        assertEquals(3L * BLOCK, written);
+        assertArrayEquals(updated, Files.readAllBytes(target));
+
+        DeltaFileTransfer.revert(target, undoLog);
+        assertArrayEquals(original, Files.readAllBytes(target));
+        assertEquals(ORIGINAL_TIME.toMillis(), Files.getLastModifiedTime(target).toMillis());
+    }
+
+    @Test
+    void revertUndoesGrowth() throws IOException {
+        byte[] original = random(8 * BLOCK + 123, 2);
+        byte[] updated = Arrays.copyOf(original, 12 * BLOCK + 7);
+        System.arraycopy(random(updated.length - original.length, 3), 0, updated, original.length,
+                updated.length - original.length);
+
+        assertRoundTrip(original, updated);
+    }
+
+    @Test
+    void revertUndoesTruncation() throws IOException {
+        byte[] original = random(12 * BLOCK + 7, 4);
+        byte[] updated = Arrays.copyOf(original, 5 * BLOCK + 300);
+        updated[BLOCK] ^= 1;
+
+        assertRoundTrip(original, updated);
+    }
+
+    @Test
+    void cancelledTransferLeavesTargetIntact() throws IOException {
+        byte[] original = random(16 * BLOCK, 5);
+        Path source = Files.write(dir.resolve("source.bin"), random(16 * BLOCK, 6));
+        Path target = target(original);
+        AtomicInteger checks = new AtomicInteger();
+
+        assertThrows(IOException.class, () -> DeltaFileTransfer.transfer(
+                source, target, dir.resolve("target.undo"), () -> checks.incrementAndGet() > 24, null));
+
+        assertArrayEquals(original, Files.readAllBytes(target));
+        assertEquals(ORIGINAL_TIME.toMillis(), Files.getLastModifiedTime(target).toMillis());
+    }
+}
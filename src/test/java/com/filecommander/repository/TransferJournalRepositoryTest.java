@@ -0,0 +1,81 @@
+package com.filecommander.repository;
+
+import com.filecommander.model.TransferJournalEntry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferJournalRepositoryTest {
+    private final TransferJournalRepository journal = TransferJournalRepository.getInstance();
+
+    private TransferJournalEntry find(long journalId) {
+        for (TransferJournalEntry entry : journal.findUnfinished()) {
+            if (entry.getId() == journalId) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void unfinishedJournalRoundTrips() {
+        Path destination = Paths.get("/dst");
+        Map<Path, Path> roots = new LinkedHashMap<>();
+        roots.put(Paths.get("/src/docs"), destination.resolve("docs"));
+        roots.put(Paths.get("/src/notes.txt"), destination.resolve("notes.txt"));
+
+        long journalId = journal.begin(TransferJournalEntry.COPY, destination, roots);
+        assertTrue(journalId >= 0);
+
+        Path a = Paths.get("/src/docs/a.txt");
+        Path b = Paths.get("/src/docs/b.txt");
+        Path c = Paths.get("/src/notes.txt");
+        journal.recordPlanned(journalId, a, destination.resolve("docs/a.txt"));
+        journal.recordPlanned(journalId, b, destination.resolve("docs/b.txt"));
+        journal.recordPlanned(journalId, c, destination.resolve("notes.txt"));
+        journal.recordCompleted(journalId, a, destination.resolve("docs/a.txt"));
+        journal.recordPlanned(journalId, a, destination.resolve("docs/a.txt"));
+        journal.recordCompleted(journalId, c, destination.resolve("notes.txt"));
+        journal.flush();
+
+        TransferJournalEntry entry = find(journalId);
+        assertNotNull(entry);
+        assertEquals(TransferJournalEntry.COPY, entry.getOperationType());
+        assertEquals(destination, entry.getDestination());
+        assertEquals(roots, entry.getRoots());
+        assertEquals(3, entry.getPlannedCount());
+        assertEquals(2, entry.getCompletedCount());
+        assertTrue(entry.isCompleted(a));
+        assertFalse(entry.isCompleted(b));
+        assertTrue(entry.isCompleted(c));
+
+        journal.finish(journalId);
+        assertNull(find(journalId));
+    }
+
+    @Test
+    void pendingItemsAreVisibleWithoutExplicitFlush() {
+        Path destination = Paths.get("/moved");
+        Path source = Paths.get("/src/tree");
+        long journalId = journal.begin(TransferJournalEntry.MOVE, destination, Map.of(source, destination.resolve("tree")));
+
+        Path file = source.resolve("f.bin");
+        journal.recordPlanned(journalId, file, destination.resolve("tree/f.bin"));
+        journal.recordCompleted(journalId, file, destination.resolve("tree/f.bin"));
+
+        TransferJournalEntry entry = find(journalId);
+        assertNotNull(entry);
+        assertTrue(entry.isMove());
+        assertEquals(1, entry.getPlannedCount());
+        assertTrue(entry.isCompleted(file));
+        assertFalse(entry.isCompleted(source));
+
+        journal.finish(journalId);
+        assertNull(find(journalId));
+    }
+}
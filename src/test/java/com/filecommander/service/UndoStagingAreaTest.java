@@ -0,0 +1,75 @@
+package com.filecommander.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UndoStagingAreaTest {
+    private final UndoStagingArea staging = UndoStagingArea.getInstance();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stagedFileRestoresToOriginalPath() throws IOException {
+        Path file = Files.writeString(dir.resolve("report.txt"), "contents");
+
+        Path staged = staging.stage(file);
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(staged));
+        assertTrue(staging.isStaged(staged));
+        assertFalse(staging.isStaged(file));
+
+        staging.restore(staged, file);
+        assertFalse(Files.exists(staged));
+        assertEquals("contents", Files.readString(file));
+    }
+
+    @Test
+    void restoreRecreatesMissingParent() throws IOException {
+        Path nested = Files.createDirectories(dir.resolve("a/b"));
+        Path file = Files.writeString(nested.resolve("c.txt"), "nested");
+
+        Path staged = staging.stage(file);
+        Files.delete(nested);
+
+        staging.restore(staged, file);
+        assertEquals("nested", Files.readString(file));
+    }
+
+    @Test
+    void purgeDeletesStagedTree() throws IOException {
+        Path tree = Files.createDirectories(dir.resolve("tree/sub"));
+        Files.writeString(tree.resolve("one.txt"), "1");
+        Files.writeString(tree.getParent().resolve("two.txt"), "2");
+
+        Path staged = staging.stage(dir.resolve("tree"));
+        assertTrue(Files.isDirectory(staged.resolve("sub")));
+
+        staging.purge(staged);
+        assertFalse(Files.exists(staged));
+        assertFalse(Files.exists(dir.resolve("tree")));
+    }
+
+    @Test
+    void ownEntriesAreNeverReportedAsOrphans() throws IOException {
+        Path staged = staging.stage(Files.writeString(dir.resolve("live.txt"), "live"));
+        try {
+            for (Path orphan : staging.findOrphanedEntries(0, 0)) {
+                assertFalse(staged.startsWith(orphan), "own entry reported as orphan: " + orphan);
+            }
+        } finally {
+            staging.purge(staged);
+        }
+    }
+
+    @Test
+    void stagingRootPathIsRejected() {
+        assertThrows(IOException.class, () -> staging.stage(dir.getRoot()));
+    }
+}
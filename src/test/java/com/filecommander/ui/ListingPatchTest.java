@@ -0,0 +1,85 @@
+package com.filecommander.ui;
+
+import com.filecommander.model.FileItem;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingPatchTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static FileItem file(String name, long size) {
+        return new FileItem(Paths.get("/data", name), name, size, TIME, false, false);
+    }
+
+    private static FileItem dir(String name) {
+        return new FileItem(Paths.get("/data", name), name, 0, TIME, true, false);
+    }
+
+    private static List<FileItem> apply(List<FileItem> current, List<FileItem> fresh) {
+        List<FileItem> patched = new ArrayList<>(current);
+        for (Consumer<List<FileItem>> edit : ListingPatch.compute(current, fresh)) {
+            edit.accept(patched);
+        }
+        return patched;
+    }
+
+    @Test
+    void unchangedListingProducesNoEdits() {
+        List<FileItem> current = List.of(dir("bin"), file("a.txt", 1), file("b.txt", 2));
+        List<FileItem> fresh = List.of(dir("bin"), file("a.txt", 1), file("b.txt", 2));
+
+        assertTrue(ListingPatch.compute(current, fresh).isEmpty());
+    }
+
+    @Test
+    void patchReproducesFreshListingAndKeepsUnchangedRows() {
+        FileItem kept = file("c.txt", 3);
+        List<FileItem> current = List.of(dir("bin"), dir("old"), file("a.txt", 1), file("b.txt", 2), kept,
+                file("z.txt", 9));
+        FileItem grown = file("b.txt", 20);
+        List<FileItem> fresh = List.of(dir("bin"), dir("new"), file("a.txt", 1), file("aa.txt", 5), grown,
+                file("c.txt", 3), file("d.txt", 4), file("e.txt", 6));
+
+        List<FileItem> patched = apply(current, fresh);
+
+        assertEquals(names(fresh), names(patched));
+        assertSame(grown, patched.get(4));
+        assertSame(kept, patched.get(5));
+        assertSame(current.get(0), patched.get(0));
+    }
+
+    @Test
+    void patchHandlesEmptyListings() {
+        List<FileItem> listing = List.of(dir("bin"), file("a.txt", 1), file("b.txt", 2));
+
+        assertEquals(names(listing), names(apply(List.of(), listing)));
+        assertTrue(apply(listing, List.of()).isEmpty());
+    }
+
+    @Test
+    void rowChangeCoversSizeTimeAndHiddenFlag() {
+        FileItem base = file("a.txt", 1);
+
+        assertFalse(ListingPatch.isRowChanged(base, file("a.txt", 1)));
+        assertTrue(ListingPatch.isRowChanged(base, file("a.txt", 2)));
+        assertTrue(ListingPatch.isRowChanged(base,
+                new FileItem(base.getPath(), "a.txt", 1, TIME.plusSeconds(1), false, false)));
+        assertTrue(ListingPatch.isRowChanged(base,
+                new FileItem(base.getPath(), "a.txt", 1, TIME, false, true)));
+    }
+
+    private static List<String> names(List<FileItem> items) {
+        List<String> names = new ArrayList<>();
+        for (FileItem item : items) {
+            names.add(item.getName() + ":" + item.getSize());
+        }
+        return names;
+    }
+}